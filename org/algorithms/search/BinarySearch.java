@@ -37,11 +37,50 @@
  * absence) in logarithmic time. A binary search is a dichotomic divide and 
  * conquer search algorithm.
  *
+ * Keys that grow about linearly, such as timestamps or sequence numbers, are
+ * found faster by interpolation, and lists whose targets lie near the start
+ * by exponential search; choose tells from a sample of the keys whether a
+ * list is uniform enough for interpolation.
+ *
+ * With duplicate keys search finds one of them, not the first; lowerBound,
+ * upperBound and equalRange give where a run of equal keys starts and ends,
+ * or where a missing key would be inserted, and countInRange counts the keys
+ * between two values with two searches. OffHeapSearch has the same bounds
+ * for the off-heap lists of the sort directory.
+ *
  * @version 0.00 06 Feb 2011
  * @author  Andrey Pudov
  */
 public class BinarySearch {
 
+    /** the number of searches searchAll advances in lock-step */
+    private static final int LANES = 16;
+
+    /** the number of keys choose compares with a straight line */
+    private static final int SAMPLES = 64;
+
+    /**
+     * The way search(list, target, n, mode) looks for the target.
+     */
+    public enum Mode {
+	/** halve the range at every probe, O(lg N) probes */
+	BISECTION,
+
+	/**
+	 * probe where the target would be if the keys grew linearly, O(lg lg N)
+	 * probes on uniformly distributed keys and at most twice as many probes
+	 * as BISECTION on any others
+	 */
+	INTERPOLATION,
+
+	/**
+	 * double the range from the start until it holds the target, then
+	 * bisect it, O(lg i) probes for a target at index i, for lists whose
+	 * end is not known or whose targets are near the start
+	 */
+	EXPONENTIAL
+    }
+
     /**
      * @param list   the elements to be searching
      * @param target the value being searched for
@@ -49,49 +88,420 @@ public class BinarySearch {
      * @return	     index of the search key
      */
     public static int search(int[] list, int target, int n) {
-	int start = 0;
-	int middle;
-	int end = n - 1;
+	return bisect(list, target, 0, n - 1);
+    }
+
+    /**
+     * @param list   the elements to be searching
+     * @param target the value being searched for
+     * @param n      the number of elements in the list
+     * @param mode   the way to look for the target
+     * @return       index of the search key, or -1 if it is not there
+     */
+    public static int search(int[] list, int target, int n, Mode mode) {
+	switch (mode) {
+	case INTERPOLATION:
+	    return interpolationSearch(list, target, n);
+	case EXPONENTIAL:
+	    return exponentialSearch(list, target, n);
+	default:
+	    return bisect(list, target, 0, n - 1);
+	}
+    }
+
+    /**
+     * Picks INTERPOLATION for lists whose keys grow close to linearly and
+     * BISECTION for the others. The keys at SAMPLES evenly spaced indices are
+     * compared with the straight line from the first key to the last one,
+     * and the list counts as uniform if none of them is further from the line
+     * than the keys of N / SAMPLES elements would span on it. That takes
+     * SAMPLES reads, so it is cheap next to building or filling the list,
+     * and the result holds for every search of the same list.
+     *
+     * @param list the sorted elements to be searching
+     * @param n    the number of elements in the list
+     * @return     the mode that suits the list
+     */
+    public static Mode choose(int[] list, int n) {
+	if (n < 2 * SAMPLES) {
+	    return Mode.BISECTION;
+	}
+
+	double first = list[0];
+	double range = (double) list[n - 1] - first;
+	if (range <= 0) {
+	    return Mode.BISECTION;
+	}
+
+	for (int i = 1; i < SAMPLES; ++i) {
+	    int    location = (int) ((long) i * (n - 1) / SAMPLES);
+	    double expected = first + range * location / (n - 1);
+
+	    /* the distance from the line as a fraction of the range */
+	    if (Math.abs(list[location] - expected) > range / SAMPLES) {
+		return Mode.BISECTION;
+	    }
+	}
+
+	return Mode.INTERPOLATION;
+    }
+
+    /**
+     * Interpolation search probes the location the target would have if the
+     * keys grew linearly from the first key of the range to the last one,
+     * the way one opens a dictionary near the end for a word starting with
+     * "w". On uniformly distributed keys each probe leaves a range of about
+     * the square root of the one before, so it takes O(lg lg N) probes, but
+     * on skewed keys the probes can move by a single element at a time. So
+     * whenever a probe fails to halve the range, the next probe bisects it,
+     * which bounds the search by 2 lg N probes.
+     *
+     * @param list   the elements to be searching
+     * @param target the value being searched for
+     * @param n      the number of elements in the list
+     * @return       index of the search key, or -1 if it is not there
+     */
+    public static int interpolationSearch(int[] list, int target, int n) {
+	int     start  = 0;
+	int     end    = n - 1;
+	boolean bisect = false;
 
 	while (start <= end) {
-	    middle = (start + end) / 2;
-	    switch (compare(list[middle], target)) {
-	    case -1:
-		/* list[middle] < target */
+	    int low  = list[start];
+	    int high = list[end];
+
+	    if ((target < low) || (target > high)) {
+		return -1;
+	    }
+	    if (low == high) {
+		return start;
+	    }
+
+	    int middle;
+	    if (bisect) {
+		middle = (start + end) >>> 1;
+	    } else {
+		middle = start + (int) ((double) ((long) target - low)
+					/ ((long) high - low) * (end - start));
+	    }
+
+	    int size  = end - start;
+	    int value = list[middle];
+
+	    if (value < target) {
 		start = middle + 1;
-		break;
-	    case 0:
-		/* list[middle] == target */
+	    } else if (value > target) {
+		end = middle - 1;
+	    } else {
 		return middle;
-	    case 1:
-		/* list[middle] > target */
+	    }
+
+	    bisect = !bisect && (end - start > size / 2);
+	}
+
+	return -1;
+    }
+
+    /**
+     * Exponential search probes the indices 0, 1, 3, 7, 15, ... until it
+     * passes the target, and then bisects the last range it skipped. It does
+     * not need to know where the list ends as long as the probes stay inside
+     * it, and a target at index i costs 2 lg i probes however long the list
+     * is, which suits lists that are appended to and searched near the start.
+     *
+     * @param list   the elements to be searching
+     * @param target the value being searched for
+     * @param n      the number of elements in the list
+     * @return       index of the search key, or -1 if it is not there
+     */
+    public static int exponentialSearch(int[] list, int target, int n) {
+	int start = 0;
+	int bound = 0;
+	int step  = 1;
+
+	while ((bound < n) && (list[bound] < target)) {
+	    start  = bound + 1;
+	    bound += step;
+	    step <<= 1;
+	}
+
+	return bisect(list, target, start, Math.min(bound, n - 1));
+    }
+
+    /**
+     * @return the index of the target in list[start..end], or -1
+     */
+    private static int bisect(int[] list, int target, int start, int end) {
+	while (start <= end) {
+	    int middle = (start + end) >>> 1;
+	    int value  = list[middle];
+
+	    if (value < target) {
+		start = middle + 1;
+	    } else if (value > target) {
 		end = middle - 1;
-		break;
-	    default:
-		/* falls trhough */
+	    } else {
+		return middle;
 	    }
 	}
-	
+
 	return -1;
     }
 
     /**
-     *                 |-1 if x < y
-     * Compare(x, y) = | 0 if x = y
-     *                 | 1 if x > y
+     * Searches for many targets at once. A single search waits for memory at
+     * almost every probe, since each probe depends on the one before. Here
+     * LANES searches advance in lock-step: every search halves its range with
+     * the same lengths, without a branch, so the LANES probes of a step do
+     * not depend on each other and their loads are in flight together. If
+     * the targets are in ascending order, they are looked up in one pass
+     * instead, each by galloping forward from where the previous one was
+     * found, which costs O(lg d) for a distance d between them.
      *
-     * The Compare function should be counted as one comparison and can best be
-     * used in a switch.
+     * @param sorted  the sorted elements to be searching
+     * @param targets the values being searched for
+     * @param out     receives for every target the index of its first
+     *                occurrence in the list, or -1 if it is not there
      */
-    private static int compare(int x, int y) {
-	if (x < y) {
-	    return -1;
-	} else if (x == y) {
+    public static void searchAll(int[] sorted, int[] targets, int[] out) {
+	int n = sorted.length;
+	int m = targets.length;
+
+	if (out.length < m) {
+	    throw new IllegalArgumentException(
+		"result list is shorter than " + m);
+	}
+	if (n == 0) {
+	    java.util.Arrays.fill(out, 0, m, -1);
+	    return;
+	}
+
+	int ascending = 1;
+	while ((ascending < m)
+	       && (targets[ascending - 1] <= targets[ascending])) {
+	    ++ascending;
+	}
+	if (ascending >= m) {
+	    gallopAll(sorted, targets, out);
+	    return;
+	}
+
+	int[] base = new int[LANES];
+
+	for (int first = 0; first < m; first += LANES) {
+	    int lanes  = Math.min(LANES, m - first);
+	    int length = n;
+
+	    java.util.Arrays.fill(base, 0);
+
+	    /* sorted[base[j]..base[j] + length] holds the bound of lane j */
+	    while (length > 1) {
+		int half = length >>> 1;
+
+		for (int j = 0; j < lanes; ++j) {
+		    int b = base[j];
+		    base[j] = (sorted[b + half - 1] < targets[first + j])
+			? b + half : b;
+		}
+		length -= half;
+	    }
+
+	    for (int j = 0; j < lanes; ++j) {
+		int target   = targets[first + j];
+		int location = base[j] + ((sorted[base[j]] < target) ? 1 : 0);
+		boolean found = (location < n) && (sorted[location] == target);
+
+		out[first + j] = found ? location : -1;
+	    }
+	}
+    }
+
+    /**
+     * Searches for ascending targets in one pass, galloping from the lower
+     * bound of every target to that of the next.
+     */
+    private static void gallopAll(int[] sorted, int[] targets, int[] out) {
+	int n        = sorted.length;
+	int location = 0;
+
+	for (int i = 0; i < targets.length; ++i) {
+	    int target = targets[i];
+
+	    /* sorted[location - 1] < target, find the next bound by doubling */
+	    int lower = location;
+	    int step  = 1;
+	    while ((location < n) && (sorted[location] < target)) {
+		lower     = location + 1;
+		location += step;
+		step     <<= 1;
+	    }
+	    int upper = Math.min(location, n);
+
+	    /* the lower bound is in lower..upper */
+	    while (lower < upper) {
+		int middle = (lower + upper) >>> 1;
+
+		if (sorted[middle] < target) {
+		    lower = middle + 1;
+		} else {
+		    upper = middle;
+		}
+	    }
+	    location = lower;
+
+	    out[i] = ((location < n) && (sorted[location] == target))
+		? location : -1;
+	}
+    }
+
+    /**
+     * Finds where the run of keys equal to the target starts. The search
+     * halves the candidate range with the same lengths whatever the keys,
+     * and moves its base with a conditional move instead of a branch, so it
+     * does the same lg N probes for every target and never mispredicts.
+     *
+     * @param list   the sorted elements to be searching
+     * @param target the value being searched for
+     * @param n      the number of elements in the list
+     * @return       the index of the first element that is not smaller than
+     *               the target, or n if there is none
+     */
+    public static int lowerBound(int[] list, int target, int n) {
+	return bound(list, target, 0, n);
+    }
+
+    /**
+     * @param list   the sorted elements to be searching
+     * @param target the value being searched for
+     * @param n      the number of elements in the list
+     * @return       the index of the first element that is greater than the
+     *               target, or n if there is none
+     */
+    public static int upperBound(int[] list, int target, int n) {
+	return (target == Integer.MAX_VALUE)
+	    ? n : bound(list, target + 1, 0, n);
+    }
+
+    /**
+     * @param list   the sorted elements to be searching
+     * @param target the value being searched for
+     * @param n      the number of elements in the list
+     * @return       the lower and the upper bound of the target, the
+     *               elements equal to it being those in between
+     */
+    public static int[] equalRange(int[] list, int target, int n) {
+	int lower = bound(list, target, 0, n);
+	int upper = (target == Integer.MAX_VALUE)
+	    ? n : bound(list, target + 1, lower, n - lower);
+
+	return new int[] {lower, upper};
+    }
+
+    /**
+     * @param list the sorted elements to be searching
+     * @param low  the smallest value counted
+     * @param high the largest value counted
+     * @param n    the number of elements in the list
+     * @return     the number of elements from low to high inclusive
+     */
+    public static int countInRange(int[] list, int low, int high, int n) {
+	if (low > high) {
+	    return 0;
+	}
+
+	return upperBound(list, high, n) - lowerBound(list, low, n);
+    }
+
+    /**
+     * @return the index of the first element of list[base..base+length-1]
+     *         that is not smaller than the target, or base + length
+     */
+    static int bound(int[] list, int target, int base, int length) {
+	if (length == 0) {
+	    return base;
+	}
+
+	/* list[base..base + length] holds the bound */
+	while (length > 1) {
+	    int half = length >>> 1;
+
+	    base    = (list[base + half - 1] < target) ? base + half : base;
+	    length -= half;
+	}
+
+	return base + ((list[base] < target) ? 1 : 0);
+    }
+
+    /**
+     * @param list   the sorted elements to be searching
+     * @param target the value being searched for
+     * @param n      the number of elements in the list
+     * @return       the index of the first element that is not smaller than
+     *               the target, or n if there is none
+     */
+    public static int lowerBound(long[] list, long target, int n) {
+	return bound(list, target, 0, n);
+    }
+
+    /**
+     * @param list   the sorted elements to be searching
+     * @param target the value being searched for
+     * @param n      the number of elements in the list
+     * @return       the index of the first element that is greater than the
+     *               target, or n if there is none
+     */
+    public static int upperBound(long[] list, long target, int n) {
+	return (target == Long.MAX_VALUE)
+	    ? n : bound(list, target + 1, 0, n);
+    }
+
+    /**
+     * @param list   the sorted elements to be searching
+     * @param target the value being searched for
+     * @param n      the number of elements in the list
+     * @return       the lower and the upper bound of the target, the
+     *               elements equal to it being those in between
+     */
+    public static int[] equalRange(long[] list, long target, int n) {
+	int lower = bound(list, target, 0, n);
+	int upper = (target == Long.MAX_VALUE)
+	    ? n : bound(list, target + 1, lower, n - lower);
+
+	return new int[] {lower, upper};
+    }
+
+    /**
+     * @param list the sorted elements to be searching
+     * @param low  the smallest value counted
+     * @param high the largest value counted
+     * @param n    the number of elements in the list
+     * @return     the number of elements from low to high inclusive
+     */
+    public static int countInRange(long[] list, long low, long high, int n) {
+	if (low > high) {
 	    return 0;
-	} else {
-	    /* x > y */
-	    return 1;
 	}
+
+	return upperBound(list, high, n) - lowerBound(list, low, n);
+    }
+
+    /**
+     * @return the index of the first element of list[base..base+length-1]
+     *         that is not smaller than the target, or base + length
+     */
+    private static int bound(long[] list, long target, int base, int length) {
+	if (length == 0) {
+	    return base;
+	}
+
+	while (length > 1) {
+	    int half = length >>> 1;
+
+	    base    = (list[base + half - 1] < target) ? base + half : base;
+	    length -= half;
+	}
+
+	return base + ((list[base] < target) ? 1 : 0);
     }
 
     public static void main(String[] args) {
@@ -112,5 +522,37 @@ public class BinarySearch {
 	long endTime = System.currentTimeMillis();
 	float seconds = (endTime - startTime) / 1000F;
 	System.out.println(Float.toString(seconds) + " seconds.");
+
+	/* many targets one at a time and all at once */
+	java.util.Random random = new java.util.Random();
+	int[] targets = new int[MAX_LEN / 4];
+	int[] out     = new int[targets.length];
+	for (int i = 0; i < targets.length; i++) {
+	    targets[i] = random.nextInt(MAX_LEN);
+	}
+
+	startTime = System.currentTimeMillis();
+	for (int i = 0; i < targets.length; i++) {
+	    out[i] = search(sorted, targets[i], sorted.length);
+	}
+	endTime = System.currentTimeMillis();
+	seconds = (endTime - startTime) / 1000F;
+	System.out.println(Float.toString(seconds) + " seconds (search).");
+
+	startTime = System.currentTimeMillis();
+	searchAll(sorted, targets, out);
+	endTime = System.currentTimeMillis();
+	seconds = (endTime - startTime) / 1000F;
+	System.out.println(Float.toString(seconds) + " seconds (searchAll).");
+
+	Mode mode = choose(sorted, sorted.length);
+	startTime = System.currentTimeMillis();
+	for (int i = 0; i < targets.length; i++) {
+	    out[i] = search(sorted, targets[i], sorted.length, mode);
+	}
+	endTime = System.currentTimeMillis();
+	seconds = (endTime - startTime) / 1000F;
+	System.out.println(Float.toString(seconds)
+			   + " seconds (" + mode.name().toLowerCase() + ").");
     }
 }
@@ -0,0 +1,203 @@
+/**
+ * Copyright (C) 2011 by Andrey Pudov
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+/**
+ * Binary search looks at the middle of the list first, then at the middle of
+ * one of its halves, and so on, so on a list much larger than the cache
+ * almost every probe reads a new cache line from memory, and which one
+ * depends on a comparison the processor has to guess. The Eytzinger layout,
+ * used for heaps since 1590, stores the sorted keys in the order a binary
+ * search visits them, level by level: the middle key in location 1, the
+ * middles of the two halves in locations 2 and 3, and generally the children
+ * of location k in locations 2k and 2k + 1. The first levels of every search
+ * are then the same few cache lines, which stay in the cache, and the
+ * children of a node are next to each other.
+ *
+ * A search descends from the root by adding the result of the comparison to
+ * 2k, without a branch to mispredict, until it falls off the bottom of the
+ * tree. The last node where it went left holds the smallest key that is not
+ * smaller than the target; it is found from the final location by dropping
+ * the trailing 1 bits, the right turns taken after it, and the left turn
+ * itself. The index is built once from a sorted list in O(N) and keeps the
+ * location of every key in the sorted list next to the key, at the cost of
+ * no extra cache line. When keys repeat, search finds the first occurrence
+ * of the target, where BinarySearch finds whichever one it probes first.
+ *
+ * Every load of the descent depends on the one before it, so the processor
+ * would wait for memory at every level. Java has no prefetch instruction, so
+ * at every level the search also reads the first of the 8 descendants three
+ * levels further down, which are stored in the next 64 bytes: the read does
+ * not depend on any comparison still to come, so it overlaps with the levels
+ * in between, and by the time the search gets there the line is in the
+ * cache. The keys read ahead are summed in a local variable, and the sum is
+ * added to the result as the number of its leading zeros shifted right by
+ * 6, which is always 0 but which the compiler cannot prove to be, so the
+ * reads are not dropped as dead code, and lookups from many threads never
+ * write to the index.
+ *
+ * Every key takes two ints of one array, so the index holds at most
+ * 2^30 - 2 keys.
+ *
+ * @version 0.00 18 Oct 2026
+ * @author  Andrey Pudov
+ */
+public class EytzingerSearch {
+
+    /** the largest number of keys, so that 2 (n + 1) fits in an int */
+    private static final int MAX_KEYS = (1 << 30) - 2;
+
+    /**
+     * the key of the node in location k of the tree in nodes[2k], and its
+     * location in the sorted list in nodes[2k + 1], from k = 1 on
+     */
+    private final int[] nodes;
+
+    /** the number of keys */
+    private final int n;
+
+    /**
+     * @param list the sorted elements to be searched
+     * @param n    the number of elements in the list, at most 2^30 - 2
+     */
+    public EytzingerSearch(int[] list, int n) {
+	if ((n < 0) || (n > MAX_KEYS)) {
+	    throw new IllegalArgumentException(
+		"number of keys " + n + " is not in 0.." + MAX_KEYS);
+	}
+
+	this.nodes = new int[2 * (n + 1)];
+	this.n     = n;
+
+	build(list, 0, 1);
+    }
+
+    /**
+     * @param target the value being searched for
+     * @return       index of the first occurrence of the search key in the
+     *               sorted list, or -1 if it is not there
+     */
+    public int search(int target) {
+	int k = descend(target);
+
+	return ((k != 0) && (nodes[2 * k] == target)) ? nodes[2 * k + 1] : -1;
+    }
+
+    /**
+     * @param target the value being searched for
+     * @return       the index of the first key not smaller than the target
+     *               in the sorted list, or n if there is none
+     */
+    public int lowerBound(int target) {
+	int k = descend(target);
+
+	return (k != 0) ? nodes[2 * k + 1] : n;
+    }
+
+    /**
+     * @return the location in tree of the smallest key not smaller than the
+     *         target, or 0 if there is none
+     */
+    private int descend(int target) {
+	int k   = 1;
+	int sum = 0;
+
+	while (k <= n) {
+	    /* touch the cache line three levels down */
+	    sum += nodes[2 * (int) Math.min(8L * k, n)];
+
+	    /* branch-free: the comparison is added to the index */
+	    k = 2 * k + ((nodes[2 * k] < target) ? 1 : 0);
+	}
+
+	/*
+	 * undo the right turns after the last left one, and the left one; the
+	 * look-ahead term is 0, there are at most 32 leading zeros
+	 */
+	return (k >>> (Integer.numberOfTrailingZeros(~k) + 1))
+	    + (Integer.numberOfLeadingZeros(sum) >>> 6);
+    }
+
+    /**
+     * Fills the subtree rooted at location k with the keys of the sorted list
+     * from index i on, in order.
+     *
+     * @return the index of the first key that was not used
+     */
+    private int build(int[] list, int i, int k) {
+	if (k <= n) {
+	    i = build(list, i, 2 * k);
+
+	    nodes[2 * k]     = list[i];
+	    nodes[2 * k + 1] = i;
+	    ++i;
+
+	    i = build(list, i, 2 * k + 1);
+	}
+
+	return i;
+    }
+
+    public static void main(String[] args) {
+	/** the maximum size of an array */
+	int MAX_LEN = 20000000;
+
+	/** the number of values searched for */
+	int SEARCHES = 5000000;
+
+	java.util.Random random = new java.util.Random();
+	int[] sorted = new int[MAX_LEN];
+	for (int i = 0; i < sorted.length; i++) {
+	    sorted[i] = 2 * i;
+	}
+	int[] targets = new int[SEARCHES];
+	for (int i = 0; i < targets.length; i++) {
+	    targets[i] = random.nextInt(2 * MAX_LEN);
+	}
+
+	EytzingerSearch index = new EytzingerSearch(sorted, sorted.length);
+
+	for (int pass = 0; pass < 2; pass++) {       // the first one warms up
+	    long found = 0;
+	    long startTime = System.currentTimeMillis();
+	    for (int i = 0; i < targets.length; i++) {
+		found += BinarySearch.search(sorted, targets[i], sorted.length);
+	    }
+	    long endTime = System.currentTimeMillis();
+	    float seconds = (endTime - startTime) / 1000F;
+	    System.out.println("BinarySearch: " + Float.toString(seconds)
+			       + " seconds.");
+
+	    startTime = System.currentTimeMillis();
+	    for (int i = 0; i < targets.length; i++) {
+		found -= index.search(targets[i]);
+	    }
+	    endTime = System.currentTimeMillis();
+	    seconds = (endTime - startTime) / 1000F;
+	    System.out.println("EytzingerSearch: " + Float.toString(seconds)
+			       + " seconds.");
+
+	    if (found != 0) {
+		System.out.println("the searches disagree");
+	    }
+	}
+    }
+}
@@ -0,0 +1,333 @@
+/**
+ * Copyright (C) 2011 by Andrey Pudov
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.util.Arrays;
+
+/**
+ * A sorted list is a monotone function from the keys to their locations,
+ * and a binary search inverts that function one probe at a time. A learned
+ * index learns the function instead: it cuts it into pieces that are close
+ * to straight lines and keeps only the first key, the first location and the
+ * slope of every piece, so that the location of a key is predicted with one
+ * multiplication. Every prediction is at most epsilon locations off, so a
+ * BinarySearch over the 2 epsilon + 1 locations around it finishes the
+ * lookup.
+ *
+ * The pieces are cut greedily, left to right: a piece starts at a key, and
+ * each further key narrows the cone of slopes that keep every key of the
+ * piece within epsilon of its location; the key that would leave the cone
+ * empty starts the next piece. The answer to a lookup is the lower bound of
+ * the target, which stays the same for all the targets between two keys, so
+ * the function is fitted at every key and just after it, and the prediction
+ * is correct for targets that are not in the list as well.
+ *
+ * The first keys of the pieces are again a sorted list, which is indexed the
+ * same way with a small epsilon, and so on until one piece is left, as in
+ * the PGM-index of Ferragina and Vinciguerra. A lookup then descends the
+ * levels with a short search on each. On data that grows about linearly a
+ * few pieces cover millions of keys, and each piece takes 16 bytes, where a
+ * B-tree would need a node for every few dozen keys.
+ *
+ * The index is static: it describes the list as it was when it was built.
+ *
+ * @version 0.00 18 Oct 2026
+ * @author  Andrey Pudov
+ */
+public class LearnedIndex {
+
+    /** the error bound of the levels that index the pieces */
+    private static final int INNER_EPSILON = 4;
+
+    /** the sorted keys */
+    private final int[] list;
+
+    /** the number of keys */
+    private final int n;
+
+    /** the error bound of the pieces that index the keys */
+    private final int epsilon;
+
+    /** the pieces over the keys in levels[0], over their first keys next */
+    private final Level[] levels;
+
+    /**
+     * @param list    the sorted elements to be searched
+     * @param n       the number of elements in the list
+     * @param epsilon the largest distance between a predicted and the real
+     *                location, at least 1
+     */
+    public LearnedIndex(int[] list, int n, int epsilon) {
+	if (epsilon < 1) {
+	    throw new IllegalArgumentException("epsilon " + epsilon);
+	}
+
+	this.list    = list;
+	this.n       = n;
+	this.epsilon = epsilon;
+
+	Level[] levels = new Level[0];
+	int[]   keys   = list;
+	int     size   = n;
+	int     bound  = epsilon;
+
+	/* index the first keys of every level until they are few */
+	while (size > 1) {
+	    Level level = new Level(keys, size, bound);
+
+	    levels = Arrays.copyOf(levels, levels.length + 1);
+	    levels[levels.length - 1] = level;
+
+	    if (level.m >= size) {
+		break;
+	    }
+
+	    keys  = level.key;
+	    size  = level.m;
+	    bound = INNER_EPSILON;
+	}
+
+	this.levels = levels;
+    }
+
+    /**
+     * @return the number of pieces on all of the levels
+     */
+    public int pieces() {
+	int pieces = 0;
+
+	for (Level level : levels) {
+	    pieces += level.m;
+	}
+
+	return pieces;
+    }
+
+    /**
+     * @param target the value being searched for
+     * @return       index of the first occurrence of the search key, or -1
+     *               if it is not there
+     */
+    public int search(int target) {
+	int location = lowerBound(target);
+
+	return ((location < n) && (list[location] == target)) ? location : -1;
+    }
+
+    /**
+     * @param target the value being searched for
+     * @return       the index of the first element that is not smaller than
+     *               the target, or n if there is none
+     */
+    public int lowerBound(int target) {
+	if ((n == 0) || (target <= list[0])) {
+	    return 0;
+	}
+	if (levels.length == 0) {
+	    return n;
+	}
+
+	/* the piece of the top level, whose first keys are few */
+	Level top = levels[levels.length - 1];
+	int piece = BinarySearch.bound(top.key, target, 0, top.m);
+	if ((piece == top.m) || (top.key[piece] != target)) {
+	    --piece;
+	}
+
+	for (int l = levels.length - 1; l >= 0; --l) {
+	    Level level = levels[l];
+	    int[] keys  = (l == 0) ? list : levels[l - 1].key;
+	    int   size  = (l == 0) ? n : levels[l - 1].m;
+	    int   error = (l == 0) ? epsilon : INNER_EPSILON;
+
+	    /*
+	     * past its last key a piece keeps the lower bound of that key,
+	     * which is the first location of the next piece
+	     */
+	    long predicted = level.location[piece] + (long) (level.slope[piece]
+		* ((long) target - level.key[piece]));
+	    predicted = Math.min(predicted, level.location[piece + 1]);
+
+	    /* one more location on either side for the rounding */
+	    int start = (int) Math.max(0, predicted - error - 1);
+	    int end   = (int) Math.min(size, predicted + error + 2);
+	    int lower = BinarySearch.bound(keys, target, start, end - start);
+
+	    if (l == 0) {
+		return lower;
+	    }
+
+	    /* the last piece of the level below that starts at the target */
+	    piece = ((lower < size) && (keys[lower] == target))
+		? lower : lower - 1;
+	}
+
+	return n;
+    }
+
+    /**
+     * The pieces that predict the lower bound of a target in a sorted list
+     * of keys.
+     */
+    private static final class Level {
+
+	/** the first key of every piece */
+	int[] key;
+
+	/** the lower bound of the first key of every piece, and the size */
+	int[] location;
+
+	/** the increase of the location per key of every piece */
+	double[] slope;
+
+	/** the number of pieces */
+	int m;
+
+	/** the largest error of a prediction */
+	private final int epsilon;
+
+	/** the slopes that keep all of the keys of the last piece in bound */
+	private double low;
+	private double high;
+
+	/**
+	 * @param keys    the sorted keys
+	 * @param size    the number of keys, at least 1
+	 * @param epsilon the largest error of a prediction
+	 */
+	Level(int[] keys, int size, int epsilon) {
+	    this.key      = new int[16];
+	    this.location = new int[16];
+	    this.slope    = new double[16];
+	    this.epsilon  = epsilon;
+
+	    for (int i = 0; i < size; ) {
+		int k     = keys[i];
+		int first = i;
+
+		while ((i < size) && (keys[i] == k)) {
+		    ++i;
+		}
+
+		/* the lower bound is first at k and i from k + 1 on */
+		add(k, first);
+		if ((k < Integer.MAX_VALUE)
+		    && ((i == size) || (keys[i] > k + 1))) {
+		    add(k + 1, i);
+		}
+	    }
+	    finish();
+
+	    key         = Arrays.copyOf(key, m);
+	    location    = Arrays.copyOf(location, m + 1);
+	    slope       = Arrays.copyOf(slope, m);
+	    location[m] = size;
+	}
+
+	/**
+	 * Adds the point (x, y) to the last piece, or starts a new piece at it
+	 * if no line through the first point of the last piece is within
+	 * epsilon of all of its points.
+	 */
+	private void add(int x, int y) {
+	    if (m > 0) {
+		double dx = (double) x - key[m - 1];
+		double dy = (double) y - location[m - 1];
+		double lo = Math.max(low, (dy - epsilon) / dx);
+		double hi = Math.min(high, (dy + epsilon) / dx);
+
+		if (lo <= hi) {
+		    low  = lo;
+		    high = hi;
+		    return;
+		}
+
+		finish();
+	    }
+
+	    if (m + 1 >= key.length) {
+		key      = Arrays.copyOf(key, 2 * key.length);
+		location = Arrays.copyOf(location, 2 * location.length);
+		slope    = Arrays.copyOf(slope, 2 * slope.length);
+	    }
+
+	    key[m]      = x;
+	    location[m] = y;
+	    low         = 0;
+	    high        = Double.POSITIVE_INFINITY;
+	    ++m;
+	}
+
+	/**
+	 * Fixes the slope of the last piece in the middle of its cone.
+	 */
+	private void finish() {
+	    slope[m - 1] = (high == Double.POSITIVE_INFINITY)
+		? 0 : (low + high) / 2;
+	}
+    }
+
+    public static void main(String[] args) {
+	/** the maximum size of an array */
+	int MAX_LEN = 20000000;
+
+	java.util.Random random = new java.util.Random();
+	int[] sorted  = new int[MAX_LEN];
+	int[] targets = new int[MAX_LEN];
+	for (int i = 0; i < sorted.length; i++) {
+	    sorted[i]  = 100 * i + random.nextInt(100);
+	    targets[i] = random.nextInt(100 * MAX_LEN);
+	}
+
+	long startTime = System.currentTimeMillis();
+	LearnedIndex index = new LearnedIndex(sorted, sorted.length, 64);
+	long endTime = System.currentTimeMillis();
+	float seconds = (endTime - startTime) / 1000F;
+	System.out.println(Float.toString(seconds) + " seconds to build "
+			   + index.pieces() + " pieces.");
+
+	for (int i = 0; i < targets.length; i++) {
+	    if (index.search(targets[i])
+		!= BinarySearch.search(sorted, targets[i], sorted.length)) {
+		System.out.println("wrong answer for " + targets[i]);
+		break;
+	    }
+	}
+
+	int[] out = new int[targets.length];
+	startTime = System.currentTimeMillis();
+	for (int i = 0; i < targets.length; i++) {
+	    out[i] = BinarySearch.search(sorted, targets[i], sorted.length);
+	}
+	endTime = System.currentTimeMillis();
+	seconds = (endTime - startTime) / 1000F;
+	System.out.println(Float.toString(seconds)
+			   + " seconds (BinarySearch).");
+
+	startTime = System.currentTimeMillis();
+	for (int i = 0; i < targets.length; i++) {
+	    out[i] = index.search(targets[i]);
+	}
+	endTime = System.currentTimeMillis();
+	seconds = (endTime - startTime) / 1000F;
+	System.out.println(Float.toString(seconds) + " seconds.");
+    }
+}
@@ -0,0 +1,338 @@
+/**
+ * Copyright (C) 2011 by Andrey Pudov
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary search over a sorted file of binary int or long keys that is never
+ * read into memory. The file is mapped into the address space in chunks of
+ * 1 GiB, and every probe reads the key straight from the mapping, so opening
+ * the file costs nothing but the mapping itself and the heap holds only the
+ * few chunk objects, however large the file is.
+ *
+ * Every probe into a part of the file that has not been read yet is a page
+ * fault and a disk read. The first probes of every binary search are the
+ * same keys, the middles of the first halvings, so the searcher keeps a
+ * summary of every step-th key on the heap. A search first bisects the
+ * summary, which costs no page fault, and then bisects the step keys between
+ * two neighbouring summary keys in the file, which costs about
+ * lg(step * width / 4096) + 1 page faults.
+ *
+ * The step is one page of keys, 1024 ints or 512 longs, so that the second
+ * bisection stays within one or two pages, unless the summary would then
+ * hold more than maxSummary keys; the step then grows to N / maxSummary,
+ * and the second bisection spans that many keys. The summary takes 8 bytes
+ * per key: by default at most 2^23 keys, 64 MiB, which keeps one key per
+ * page for files of up to 32 GiB. Reading the summary touches every step-th
+ * key when the file is opened, which on a cold page cache reads every page
+ * of the file once, in order, when the step is one page.
+ *
+ * close unmaps the file at once; without it the mapping lasts until the
+ * searcher is no longer reachable. The file must not be changed while it is
+ * searched, and the searcher must not be used after it is closed.
+ *
+ * @version 0.00 18 Oct 2026
+ * @author  Andrey Pudov
+ */
+public final class MappedBinarySearch implements AutoCloseable {
+
+    /** lg of the number of bytes in a mapped chunk */
+    private static final int CHUNK_SHIFT = 30;
+
+    /** the number of bytes in a mapped chunk, a multiple of every width */
+    private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+
+    /** the number of bytes in a page */
+    private static final int PAGE = 4096;
+
+    /** the largest number of keys in the summary by default, 64 MiB */
+    private static final int DEFAULT_SUMMARY = 1 << 23;
+
+    private static final sun.misc.Unsafe UNSAFE;
+
+    static {
+	try {
+	    Field field = sun.misc.Unsafe.class.getDeclaredField("theUnsafe");
+	    field.setAccessible(true);
+	    UNSAFE = (sun.misc.Unsafe) field.get(null);
+	} catch (ReflectiveOperationException e) {
+	    throw new ExceptionInInitializerError(e);
+	}
+    }
+
+    /** the mapped chunks, kept so that close can unmap them */
+    private ByteBuffer[] chunks;
+
+    /** the mapped chunks of an int file, null for a long file */
+    private IntBuffer[] ints;
+
+    /** the mapped chunks of a long file, null for an int file */
+    private LongBuffer[] longs;
+
+    /** lg of the number of keys in a chunk */
+    private final int shift;
+
+    /** the number of keys in the file */
+    private final long n;
+
+    /** the number of keys between neighbouring summary keys */
+    private final long step;
+
+    /** the key at index s * step of the file in location s */
+    private final long[] summary;
+
+    /**
+     * @param file  the sorted file of ints
+     * @param order the byte order of the ints
+     * @return      the searcher of the file
+     */
+    public static MappedBinarySearch ofInts(Path file, ByteOrder order)
+	    throws IOException {
+	return new MappedBinarySearch(file, order, Integer.BYTES,
+				      DEFAULT_SUMMARY);
+    }
+
+    /**
+     * @param file       the sorted file of ints
+     * @param order      the byte order of the ints
+     * @param maxSummary the largest number of keys kept on the heap, 8 bytes
+     *                   each, at least 1
+     * @return           the searcher of the file
+     */
+    public static MappedBinarySearch ofInts(Path file, ByteOrder order,
+					    int maxSummary)
+	    throws IOException {
+	return new MappedBinarySearch(file, order, Integer.BYTES, maxSummary);
+    }
+
+    /**
+     * @param file  the sorted file of longs
+     * @param order the byte order of the longs
+     * @return      the searcher of the file
+     */
+    public static MappedBinarySearch ofLongs(Path file, ByteOrder order)
+	    throws IOException {
+	return new MappedBinarySearch(file, order, Long.BYTES,
+				      DEFAULT_SUMMARY);
+    }
+
+    /**
+     * @param file       the sorted file of longs
+     * @param order      the byte order of the longs
+     * @param maxSummary the largest number of keys kept on the heap, 8 bytes
+     *                   each, at least 1
+     * @return           the searcher of the file
+     */
+    public static MappedBinarySearch ofLongs(Path file, ByteOrder order,
+					     int maxSummary)
+	    throws IOException {
+	return new MappedBinarySearch(file, order, Long.BYTES, maxSummary);
+    }
+
+    private MappedBinarySearch(Path file, ByteOrder order, int width,
+			       int maxSummary) throws IOException {
+	if (maxSummary < 1) {
+	    throw new IllegalArgumentException("maxSummary " + maxSummary);
+	}
+
+	FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+	try {
+	    long size = channel.size();
+	    if (size % width != 0) {
+		throw new IOException(file + " is not a whole number of "
+				      + ((width == Integer.BYTES)
+					 ? "ints" : "longs"));
+	    }
+
+	    int count = (int) ((size + CHUNK_SIZE - 1) >>> CHUNK_SHIFT);
+	    this.chunks = new ByteBuffer[count];
+	    this.ints   = (width == Integer.BYTES)
+		? new IntBuffer[count] : null;
+	    this.longs  = (width == Long.BYTES) ? new LongBuffer[count] : null;
+	    for (int c = 0; c < count; ++c) {
+		long base = (long) c << CHUNK_SHIFT;
+		long length = Math.min(CHUNK_SIZE, size - base);
+		chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY,
+					base, length).order(order);
+
+		if (ints != null) {
+		    ints[c] = chunks[c].asIntBuffer();
+		} else {
+		    longs[c] = chunks[c].asLongBuffer();
+		}
+	    }
+
+	    this.shift = CHUNK_SHIFT - Integer.numberOfTrailingZeros(width);
+	    this.n     = size / width;
+	} finally {
+	    /* the mapping stays valid after the channel is closed */
+	    channel.close();
+	}
+
+	/* one key per page, or fewer if the summary would be too large */
+	this.step    = Math.max(PAGE / width,
+				(n + maxSummary - 1) / maxSummary);
+	this.summary = new long[(int) ((n + step - 1) / step)];
+	for (int s = 0; s < summary.length; ++s) {
+	    summary[s] = get(s * step);
+	}
+    }
+
+    /**
+     * Unmaps the file at once. The searcher must not be used afterwards.
+     */
+    @Override
+    public void close() {
+	ByteBuffer[] unmapped = chunks;
+
+	chunks = new ByteBuffer[0];
+	ints   = (ints != null) ? new IntBuffer[0] : null;
+	longs  = (longs != null) ? new LongBuffer[0] : null;
+	for (ByteBuffer chunk : unmapped) {
+	    UNSAFE.invokeCleaner(chunk);
+	}
+    }
+
+    /**
+     * @return the number of keys in the file
+     */
+    public long length() {
+	return n;
+    }
+
+    /**
+     * @param index the index of the key in the file
+     * @return      the key, an int key extended to long
+     */
+    public long get(long index) {
+	int chunk    = (int) (index >>> shift);
+	int position = (int) (index & ((1L << shift) - 1));
+
+	return (ints != null)
+	    ? ints[chunk].get(position) : longs[chunk].get(position);
+    }
+
+    /**
+     * @param target the search key
+     * @return       index of the search key in the file, or -1 if it is not
+     *               there
+     */
+    public long search(long target) {
+	long location = lowerBound(target);
+
+	return ((location < n) && (get(location) == target)) ? location : -1;
+    }
+
+    /**
+     * @param target the search key
+     * @return       the index of the first key in the file that is not
+     *               smaller than the target, or the number of keys if there
+     *               is none
+     */
+    public long lowerBound(long target) {
+	/* the number of summary keys smaller than the target */
+	int lo = 0;
+	int hi = summary.length;
+	while (lo < hi) {
+	    int middle = (lo + hi) >>> 1;
+
+	    if (summary[middle] < target) {
+		lo = middle + 1;
+	    } else {
+		hi = middle;
+	    }
+	}
+
+	/*
+	 * the key at (lo - 1) * step is smaller than the target and the key at
+	 * lo * step is not, so the bound lies between them
+	 */
+	long start = (lo == 0) ? 0 : (lo - 1) * step + 1;
+	long end   = Math.min(lo * step, n);
+	while (start < end) {
+	    long middle = (start + end) >>> 1;
+
+	    if (get(middle) < target) {
+		start = middle + 1;
+	    } else {
+		end = middle;
+	    }
+	}
+
+	return start;
+    }
+
+    public static void main(String[] args) throws IOException {
+	/** the maximum size of a file */
+	int MAX_LEN = 20000000;
+
+	Path file = Files.createTempFile("sorted", ".bin");
+	try {
+	    java.util.Random random = new java.util.Random();
+	    ByteBuffer buffer = ByteBuffer.allocate(4 * MAX_LEN)
+		.order(ByteOrder.LITTLE_ENDIAN);
+	    for (int i = 0; i < MAX_LEN; i++) {
+		buffer.putInt(2 * i);
+	    }
+	    buffer.flip();
+	    try (FileChannel out = FileChannel.open(file,
+						    StandardOpenOption.WRITE)) {
+		while (buffer.hasRemaining()) {
+		    out.write(buffer);
+		}
+	    }
+
+	    long startTime = System.currentTimeMillis();
+	    MappedBinarySearch searcher =
+		ofInts(file, ByteOrder.LITTLE_ENDIAN);
+	    long endTime = System.currentTimeMillis();
+	    float seconds = (endTime - startTime) / 1000F;
+	    System.out.println(Float.toString(seconds) + " seconds (open).");
+
+	    startTime = System.currentTimeMillis();
+	    for (int i = 0; i < MAX_LEN; i++) {
+		int target = random.nextInt(2 * MAX_LEN);
+		if (searcher.search(target) != ((target % 2 == 0)
+						? target / 2 : -1)) {
+		    System.out.println("wrong answer for " + target);
+		    break;
+		}
+	    }
+	    endTime = System.currentTimeMillis();
+	    seconds = (endTime - startTime) / 1000F;
+	    System.out.println(Float.toString(seconds) + " seconds.");
+
+	    searcher.close();
+	} finally {
+	    Files.deleteIfExists(file);
+	}
+    }
+}
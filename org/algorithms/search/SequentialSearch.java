@@ -20,6 +20,10 @@
  * THE SOFTWARE.
  */
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * In computer science, linear search or sequential search is a method for 
  * finding a particular value in a list, that consists of checking every one of 
@@ -36,6 +40,18 @@
  * @author  Andrey Pudov
  */
 public class SequentialSearch {
+    /**
+     * the number of elements of a list scanned by parallelSearch between
+     * looks at the other tasks
+     */
+    private static final int BLOCK = 4096;
+
+    /** the number of elements compared at once by blockSearch */
+    private static final int LANES = 8;
+
+    /** the parts of the list up to this size are scanned by a single task */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
     /* Worst-Case Analysis - N */
     /* 
      * Average-Case Analysis - 
@@ -60,6 +76,126 @@ public class SequentialSearch {
 	return -1;
     }
 
+    /**
+     * Returns the same result as search, but compares LANES elements at a
+     * time. The comparisons of a block are combined with a bitwise or, which
+     * does not branch, so there is one branch per block instead of one per
+     * element, and the comparisons of a block are independent of each other.
+     * Only the block with the target is looked at again to find its lane.
+     *
+     * @param list   the elements to be searching
+     * @param target the value being searched for
+     * @param n      the number of elements in the list
+     * @return       index of the search key, or -1 if it is not there
+     */
+    public static int blockSearch(int[] list, int target, int n) {
+	return scan(list, target, 0, n);
+    }
+
+    /**
+     * Returns the same result as search, but the list is split into parts
+     * that are scanned as separate fork/join tasks. A task that finds the
+     * target records its index if it is the lowest one found so far, and
+     * every task stops as soon as an index lower than the start of its part
+     * has been found, since nothing it could find would be the first one.
+     * The parts before the one with the first occurrence are still scanned
+     * to the end, so the result is the lowest index, as that of search.
+     *
+     * @param list   the elements to be searching
+     * @param target the value being searched for
+     * @param n      the number of elements in the list
+     * @return       index of the search key, or -1 if it is not there
+     */
+    public static int parallelSearch(int[] list, int target, int n) {
+	if (n <= PARALLEL_THRESHOLD) {
+	    return scan(list, target, 0, n);
+	}
+
+	AtomicInteger found = new AtomicInteger(n);
+	ForkJoinPool.commonPool().invoke(
+	    new SearchTask(list, target, 0, n, found));
+
+	int index = found.get();
+	return (index < n) ? index : -1;
+    }
+
+    /**
+     * @return the index of the first target in list[from..to), or -1
+     */
+    private static int scan(int[] list, int target, int from, int to) {
+	int i = from;
+
+	for (; i + LANES <= to; i += LANES) {
+	    boolean hit = (list[i]     == target) | (list[i + 1] == target)
+		| (list[i + 2] == target) | (list[i + 3] == target)
+		| (list[i + 4] == target) | (list[i + 5] == target)
+		| (list[i + 6] == target) | (list[i + 7] == target);
+
+	    if (hit) {
+		break;
+	    }
+	}
+
+	/* the block with the target, or the elements after the last block */
+	for (; i < to; i++) {
+	    if (target == list[i]) {
+		return i;
+	    }
+	}
+
+	return -1;
+    }
+
+    /**
+     * Scans list[from..to) in parts of at most PARALLEL_THRESHOLD elements.
+     */
+    private static final class SearchTask extends RecursiveAction {
+	private static final long serialVersionUID = 1L;
+
+	private final int[]         list;
+	private final int           target;
+	private final int           from;
+	private final int           to;
+	private final AtomicInteger found;
+
+	SearchTask(int[] list, int target, int from, int to,
+		   AtomicInteger found) {
+	    this.list   = list;
+	    this.target = target;
+	    this.from   = from;
+	    this.to     = to;
+	    this.found  = found;
+	}
+
+	@Override
+	protected void compute() {
+	    if (found.get() < from) {
+		return;
+	    }
+
+	    if (to - from > PARALLEL_THRESHOLD) {
+		int middle = (from + to) >>> 1;
+		invokeAll(new SearchTask(list, target, from, middle, found),
+			  new SearchTask(list, target, middle, to, found));
+		return;
+	    }
+
+	    /* look at the other tasks after every block */
+	    for (int start = from; start < to; start += BLOCK) {
+		if (found.get() < start) {
+		    return;
+		}
+
+		int end   = Math.min(start + BLOCK, to);
+		int index = scan(list, target, start, end);
+		if (index >= 0) {
+		    found.accumulateAndGet(index, Math::min);
+		    return;
+		}
+	    }
+	}
+    }
+
     public static void main(String[] args) {
 	/** the maximum size of an array */
 	int MAX_LEN = 20000000;
@@ -92,5 +228,18 @@ public class SequentialSearch {
 	endTime = System.currentTimeMillis();
 	seconds = (endTime - startTime) / 1000F;
 	System.out.println(Float.toString(seconds) + " seconds.");
+
+	/* the same scan a block at a time and in parallel */
+	startTime = System.currentTimeMillis();
+	blockSearch(unsorted, target, unsorted.length);
+	endTime = System.currentTimeMillis();
+	seconds = (endTime - startTime) / 1000F;
+	System.out.println(Float.toString(seconds) + " seconds (block).");
+
+	startTime = System.currentTimeMillis();
+	parallelSearch(unsorted, target, unsorted.length);
+	endTime = System.currentTimeMillis();
+	seconds = (endTime - startTime) / 1000F;
+	System.out.println(Float.toString(seconds) + " seconds (parallel).");
     }
 }
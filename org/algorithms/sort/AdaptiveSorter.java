@@ -0,0 +1,189 @@
+/**
+ * Copyright (C) 2011 by Andrey Pudov
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+/**
+ * The adaptive sorter looks at a sample of the list before sorting it and
+ * passes the list to the sort that suits it best. It measures three things:
+ *
+ *   the size of the list;
+ *   the presortedness, as the fraction of sampled neighbours that are out of
+ *   order, each of which starts a new ascending run;
+ *   the duplicate ratio, as the fraction of a sorted sample of the keys that
+ *   are equal to their predecessor.
+ *
+ * Small lists and sorted samples of short lists go to InsertionSort, which
+ * does O(N) work on an almost sorted list. Other almost sorted lists go to
+ * MergeSort, whose NaturalMergeSort merges the runs that are already there.
+ * Lists with many equal keys go to the three-way QuickSort3, which never
+ * looks at the keys equal to a pivot again, large lists to RadixSort, whose
+ * time does not depend on the keys, and everything else to Quicksort. The
+ * sample costs O(S lg S) for a sample of S keys, independent of N.
+ *
+ * @version 0.00 18 Oct 2026
+ * @author  Andrey Pudov
+ */
+public class AdaptiveSorter implements Sorter {
+
+    /** the lists up to this size are always sorted by insertion */
+    private static final int SMALL = 32;
+
+    /** the sorted samples of lists up to this size are sorted by insertion */
+    private static final int SHORT = 1024;
+
+    /** the lists from this size on are sorted by radix */
+    private static final int LARGE = 1 << 20;
+
+    /** the lists with this fraction of sampled keys repeated are few-valued */
+    private static final double DUPLICATES = 0.5;
+
+    /** the number of neighbours and keys taken into the sample */
+    private static final int SAMPLE = 256;
+
+    private final Sorter insertionSort = new InsertionSort();
+    private final Sorter mergeSort     = new MergeSort();
+    private final Sorter quickSort     = new QuickSort();
+    private final Sorter radixSort     = new RadixSort();
+    private final Sorter fewValuedSort = new FewValuedSort();
+
+    /**
+     * @param list the elements to be put into order
+     * @param n    the number of elements in the list
+     */
+    public void sort(int[] list, int n) {
+	choose(list, n).sort(list, n);
+    }
+
+    /**
+     * @param list the elements to be put into order
+     * @param n    the number of elements in the list
+     * @return     the sort that suits the list best
+     */
+    public Sorter choose(int[] list, int n) {
+	if (n <= SMALL) {
+	    return insertionSort;
+	}
+
+	int descents = descents(list, n);
+	if (descents == 0) {
+	    return (n <= SHORT) ? insertionSort : mergeSort;
+	}
+
+	/* fewer than one run break in 32 sampled neighbours */
+	if (descents * 32 < Math.min(n - 1, SAMPLE)) {
+	    return mergeSort;
+	}
+
+	if (duplicates(list, n) >= DUPLICATES) {
+	    return fewValuedSort;
+	}
+
+	if (n >= LARGE) {
+	    return radixSort;
+	}
+
+	return quickSort;
+    }
+
+    /**
+     * @param list the elements to be sampled
+     * @param n    the number of elements in the list
+     * @return     the number of sampled neighbours that are out of order
+     */
+    static int descents(int[] list, int n) {
+	int samples  = Math.min(n - 1, SAMPLE);
+	int descents = 0;
+
+	for (int i = 0; i < samples; ++i) {
+	    int location = (int) ((long) i * (n - 1) / samples);
+
+	    if (list[location] > list[location + 1]) {
+		++descents;
+	    }
+	}
+
+	return descents;
+    }
+
+    /**
+     * @param list the elements to be sampled
+     * @param n    the number of elements in the list
+     * @return     the fraction of the sampled keys that repeat another one
+     */
+    static double duplicates(int[] list, int n) {
+	int   samples = Math.min(n, SAMPLE);
+	int[] sample  = new int[samples];
+
+	for (int i = 0; i < samples; ++i) {
+	    sample[i] = list[(int) ((long) i * n / samples)];
+	}
+	QuickSort.IntroSort(sample, 0, samples - 1);
+
+	int duplicates = 0;
+	for (int i = 1; i < samples; ++i) {
+	    if (sample[i - 1] == sample[i]) {
+		++duplicates;
+	    }
+	}
+
+	return (double) duplicates / samples;
+    }
+
+    /**
+     * The three-way Quicksort as a Sorter.
+     */
+    private static final class FewValuedSort implements Sorter {
+	public void sort(int[] list, int n) {
+	    QuickSort.QuickSort3(list, 0, n - 1);
+	}
+    }
+
+    public static void main(String[] args) {
+	/** the maximum size of an array */
+	int MAX_LEN = 2000000;
+
+	AdaptiveSorter sorter = new AdaptiveSorter();
+	java.util.Random random = new java.util.Random();
+
+	int[] random1 = new int[MAX_LEN];
+	int[] sorted  = new int[MAX_LEN];
+	int[] few     = new int[MAX_LEN / 4];
+	for (int i = 0; i < MAX_LEN; i++) {
+	    random1[i] = random.nextInt();
+	    sorted[i]  = (random.nextInt(1000) == 0) ? random.nextInt() : i;
+	}
+	for (int i = 0; i < few.length; i++) {
+	    few[i] = random.nextInt(16);
+	}
+
+	for (int[] list : new int[][] {random1, sorted, few}) {
+	    Sorter choice = sorter.choose(list, list.length);
+
+	    long startTime = System.currentTimeMillis();
+	    choice.sort(list, list.length);
+	    long endTime = System.currentTimeMillis();
+	    float seconds = (endTime - startTime) / 1000F;
+
+	    System.out.println(choice.getClass().getName() + ": "
+			       + Float.toString(seconds) + " seconds.");
+	}
+    }
+}
@@ -0,0 +1,230 @@
+/**
+ * Copyright (C) 2011 by Andrey Pudov
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+/**
+ * The argsort does not move the keys. It returns the permutation that would
+ * put them into order: the location in the list of the smallest key first,
+ * then that of the next smallest, and so on. Data kept as columns, one
+ * primitive list per field, can then be sorted by one of the columns without
+ * building rows, by applying the same permutation to every column. The keys
+ * and their locations are sorted together by RadixSort, which is stable, so
+ * equal keys keep the order of their locations.
+ *
+ * A double is turned into a long that sorts the same way: its bits are taken
+ * as they are for a positive number and with all but the sign bit inverted
+ * for a negative one, so the order is that of Double.compare, -0.0 before
+ * 0.0 and NaN last.
+ *
+ * Applying a permutation reads every column at random locations, which is
+ * the slow part. A column cannot be gathered into itself, so it is first
+ * copied into a scratch list, in one sequential pass, and then gathered back
+ * from there. The columns are reordered one after the other and the scratch
+ * list of an element type is shared by all of the columns of that type, so
+ * the extra memory is one list as long as the permutation per element type,
+ * not a copy of the whole table.
+ *
+ * @version 0.00 18 Oct 2026
+ * @author  Andrey Pudov
+ */
+public class ArgSort {
+
+    /**
+     * @param keys the keys to order
+     * @return     the locations of the keys in ascending order of the keys
+     */
+    public static int[] argSort(int[] keys) {
+	int   n     = keys.length;
+	int[] index = identity(n);
+
+	if (n > 1) {
+	    RadixSort.sort(keys.clone(), index, 0, n - 1);
+	}
+
+	return index;
+    }
+
+    /**
+     * @param keys the keys to order
+     * @return     the locations of the keys in ascending order of the keys
+     */
+    public static int[] argSort(long[] keys) {
+	int   n     = keys.length;
+	int[] index = identity(n);
+
+	if (n > 1) {
+	    RadixSort.sort(keys.clone(), index, 0, n - 1);
+	}
+
+	return index;
+    }
+
+    /**
+     * @param keys the keys to order
+     * @return     the locations of the keys in the order of Double.compare
+     */
+    public static int[] argSort(double[] keys) {
+	int    n     = keys.length;
+	int[]  index = identity(n);
+	long[] bits  = new long[n];
+
+	for (int i = 0; i < n; ++i) {
+	    long key = Double.doubleToLongBits(keys[i]);
+	    bits[i] = key ^ ((key >> 63) & Long.MAX_VALUE);
+	}
+
+	if (n > 1) {
+	    RadixSort.sort(bits, index, 0, n - 1);
+	}
+
+	return index;
+    }
+
+    /**
+     * Reorders every column so that its element i is the one that was at
+     * location permutation[i].
+     *
+     * @param permutation the locations to take the elements from
+     * @param columns     int[], long[], double[] or Object[] lists as long as
+     *                    the permutation
+     */
+    public static void apply(int[] permutation, Object... columns) {
+	int n = permutation.length;
+
+	/* check every column before changing any of them */
+	for (int c = 0; c < columns.length; ++c) {
+	    Object column = columns[c];
+
+	    if (!(column instanceof int[]) && !(column instanceof long[])
+		&& !(column instanceof double[])
+		&& !(column instanceof Object[])) {
+		throw new IllegalArgumentException(
+		    "column " + c + " is a " + column.getClass().getName());
+	    }
+	    if (java.lang.reflect.Array.getLength(column) != n) {
+		throw new IllegalArgumentException(
+		    "column " + c + " is not " + n + " elements long");
+	    }
+	}
+
+	/* the scratch lists, allocated for the first column of their type */
+	int[]    ints    = null;
+	long[]   longs   = null;
+	double[] doubles = null;
+	Object[] objects = null;
+
+	for (Object column : columns) {
+	    if (column instanceof int[]) {
+		ints = (ints == null) ? new int[n] : ints;
+		System.arraycopy(column, 0, ints, 0, n);
+		gather((int[]) column, ints, permutation);
+	    } else if (column instanceof long[]) {
+		longs = (longs == null) ? new long[n] : longs;
+		System.arraycopy(column, 0, longs, 0, n);
+		gather((long[]) column, longs, permutation);
+	    } else if (column instanceof double[]) {
+		doubles = (doubles == null) ? new double[n] : doubles;
+		System.arraycopy(column, 0, doubles, 0, n);
+		gather((double[]) column, doubles, permutation);
+	    } else {
+		objects = (objects == null) ? new Object[n] : objects;
+		System.arraycopy(column, 0, objects, 0, n);
+		gather((Object[]) column, objects, permutation);
+	    }
+	}
+
+	if (objects != null) {
+	    /* drop the references, so that the scratch list keeps nothing */
+	    java.util.Arrays.fill(objects, null);
+	}
+    }
+
+    /**
+     * @return the list 0, 1, ..., n - 1
+     */
+    private static int[] identity(int n) {
+	int[] index = new int[n];
+
+	for (int i = 0; i < n; ++i) {
+	    index[i] = i;
+	}
+
+	return index;
+    }
+
+    private static void gather(
+            int[] dst, int[] src, int[] permutation) {
+	for (int i = 0; i < dst.length; ++i) {
+	    dst[i] = src[permutation[i]];
+	}
+    }
+
+    private static void gather(
+            long[] dst, long[] src, int[] permutation) {
+	for (int i = 0; i < dst.length; ++i) {
+	    dst[i] = src[permutation[i]];
+	}
+    }
+
+    private static void gather(
+            double[] dst, double[] src, int[] permutation) {
+	for (int i = 0; i < dst.length; ++i) {
+	    dst[i] = src[permutation[i]];
+	}
+    }
+
+    private static void gather(
+            Object[] dst, Object[] src, int[] permutation) {
+	for (int i = 0; i < dst.length; ++i) {
+	    dst[i] = src[permutation[i]];
+	}
+    }
+
+    public static void main(String[] args) {
+	/** the maximum size of an array */
+	int MAX_LEN = 5000000;
+
+	java.util.Random random = new java.util.Random();
+	double[] price    = new double[MAX_LEN];
+	long[]   time     = new long[MAX_LEN];
+	int[]    quantity = new int[MAX_LEN];
+	for (int i = 0; i < MAX_LEN; i++) {
+	    price[i]    = random.nextGaussian();
+	    time[i]     = i;
+	    quantity[i] = random.nextInt(1000);
+	}
+
+	long startTime = System.currentTimeMillis();
+	int[] permutation = argSort(price);
+	apply(permutation, price, time, quantity);
+	long endTime = System.currentTimeMillis();
+	float seconds = (endTime - startTime) / 1000F;
+
+	for (int i = 1; i < MAX_LEN; i++) {
+	    if (price[i - 1] > price[i]) {
+		System.out.println("not sorted at " + i);
+		break;
+	    }
+	}
+
+	System.out.println(Float.toString(seconds) + " seconds.");
+    }
+}
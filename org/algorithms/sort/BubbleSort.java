@@ -41,7 +41,7 @@
  * @version 0.00 27 Feb 2011
  * @author  Andrey Pudov  
  */
-class BubbleSort {
+public class BubbleSort implements Sorter {
 
     /**
      * @param list the elements to be put into order
@@ -81,6 +81,14 @@ class BubbleSort {
 	a[j] = t;
     }
 
+    /**
+     * @param list the elements to be put into order
+     * @param n    the number of elements in the list
+     */
+    public void sort(int[] list, int n) {
+	BubbleSort(list, n);
+    }
+
     public static void main(String[] args) {
 	int[] list = {15, 4, 10, 8, 6, 9, 16, 1, 7, 3, 11, 14, 2, 5, 12, 13};
 
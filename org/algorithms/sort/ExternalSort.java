@@ -0,0 +1,434 @@
+/**
+ * Copyright (C) 2011 by Andrey Pudov
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * All of the other sorts need the whole list in memory. An external sort
+ * works on a file of binary int values that may be much larger than that. It
+ * reads the file in chunks that do fit in memory, sorts each chunk with
+ * ParallelMergeSort and writes it out to a temporary file as a sorted run.
+ * The runs are then merged into the output file with a loser tree: a
+ * tournament tree whose internal nodes remember the loser of the match
+ * played there, so that replacing the winner by the next element of its run
+ * takes only lg K comparisons along the path to the root, where K is the
+ * number of runs merged.
+ *
+ * Every run being merged holds an open file, and a process may open only so
+ * many, often 1024, so at most MAX_FAN_IN runs are merged at once. If there
+ * are more, every MAX_FAN_IN neighbouring runs are first merged into one
+ * longer run, pass after pass, until few enough are left for the last merge
+ * into the output. A pass reads and writes the whole file once more; with
+ * the default chunk size the runs of up to 2^33 ints, 32 GiB, are merged
+ * without one, and those of up to 2^42 ints with a single pass.
+ *
+ * Every read and write goes through a large direct buffer, so the file is
+ * accessed sequentially in big blocks, and the chunk, its auxiliary list and
+ * the buffers are allocated once and reused for every run. The time of the
+ * sort is then bounded by the bandwidth of the disk rather than by the
+ * garbage collector.
+ *
+ * @version 0.00 18 Oct 2026
+ * @author  Andrey Pudov
+ */
+public class ExternalSort {
+
+    /** the default number of ints sorted in memory at a time (64 MB) */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 24;
+
+    /** the largest number of runs merged at once */
+    private static final int MAX_FAN_IN = 512;
+
+    /** the smallest buffer used to read a run during the merge */
+    private static final int MIN_READ_BUFFER = 1 << 16;
+
+    /** the size of the buffer used to write the output file */
+    private static final int WRITE_BUFFER = 1 << 22;
+
+    /**
+     * Sorts a file of big-endian ints with the default chunk size.
+     *
+     * @param input  the file of ints to sort
+     * @param output the file to write the sorted ints into
+     */
+    public static void sort(Path input, Path output) throws IOException {
+	sort(input, output, DEFAULT_CHUNK_SIZE, ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * @param input     the file of ints to sort
+     * @param output    the file to write the sorted ints into
+     * @param chunkSize the number of ints sorted in memory at a time
+     * @param order     the byte order of the ints in both files
+     */
+    public static void sort(Path input, Path output, int chunkSize,
+			    ByteOrder order) throws IOException {
+	if ((chunkSize <= 0) || (chunkSize > Integer.MAX_VALUE / 4)) {
+	    throw new IllegalArgumentException("chunk size " + chunkSize);
+	}
+
+	Path directory = output.toAbsolutePath().getParent();
+	List<Path> runs = new ArrayList<Path>();
+
+	try {
+	    createRuns(input, directory, runs, chunkSize, order);
+
+	    while (runs.size() > MAX_FAN_IN) {
+		mergePass(runs, directory, 4 * chunkSize, order);
+	    }
+
+	    if (runs.size() == 1) {
+		Files.move(runs.get(0), output,
+			   StandardCopyOption.REPLACE_EXISTING);
+		runs.clear();
+	    } else {
+		mergeRuns(runs, output, 4 * chunkSize, order);
+	    }
+	} finally {
+	    for (Path run : runs) {
+		Files.deleteIfExists(run);
+	    }
+	}
+    }
+
+    /**
+     * Reads the input in chunks, sorts every chunk and writes it to a
+     * temporary file in directory. An empty input gives a single empty run.
+     *
+     * @param input     the file of ints to sort
+     * @param directory the directory to create the runs in
+     * @param runs      the list to add the names of the runs to
+     * @param chunkSize the number of ints sorted in memory at a time
+     * @param order     the byte order of the ints
+     */
+    private static void createRuns(Path input, Path directory, List<Path> runs,
+				   int chunkSize, ByteOrder order)
+	    throws IOException {
+	ByteBuffer buffer = ByteBuffer.allocateDirect(4 * chunkSize);
+	buffer.order(order);
+	int[] chunk = new int[chunkSize];
+	int[] aux   = new int[chunkSize];
+
+	FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+	try {
+	    while (true) {
+		buffer.clear();
+		while (buffer.hasRemaining() && (in.read(buffer) >= 0)) {
+		    /* fill the whole chunk */
+		}
+		buffer.flip();
+
+		if (buffer.remaining() % 4 != 0) {
+		    throw new IOException(
+			input + " is not a whole number of ints");
+		}
+		if ((buffer.remaining() == 0) && !runs.isEmpty()) {
+		    break;
+		}
+
+		int n = buffer.remaining() / 4;
+		buffer.asIntBuffer().get(chunk, 0, n);
+		ParallelMergeSort.sort(chunk, 0, n - 1, aux);
+
+		buffer.clear();
+		buffer.asIntBuffer().put(chunk, 0, n);
+		buffer.limit(4 * n);
+
+		Path run = Files.createTempFile(directory, "run", ".tmp");
+		runs.add(run);
+		write(run, buffer);
+
+		if (n < chunkSize) {
+		    break;
+		}
+	    }
+	} finally {
+	    in.close();
+	}
+    }
+
+    /**
+     * Writes the buffer from its position to its limit into a new file.
+     */
+    private static void write(Path file, ByteBuffer buffer)
+	    throws IOException {
+	FileChannel out = FileChannel.open(
+	    file, StandardOpenOption.WRITE,
+	    StandardOpenOption.TRUNCATE_EXISTING);
+	try {
+	    while (buffer.hasRemaining()) {
+		out.write(buffer);
+	    }
+	} finally {
+	    out.close();
+	}
+    }
+
+    /**
+     * Merges every MAX_FAN_IN neighbouring runs into one, in order, deleting
+     * them as soon as they are merged. The merged run takes the place of
+     * those in the list before it is written, so that it is deleted with the
+     * others should the pass fail.
+     *
+     * @param runs      the names of the sorted runs
+     * @param directory the directory to create the merged runs in
+     * @param memory    the number of bytes to spend on the read buffers
+     * @param order     the byte order of the ints
+     */
+    private static void mergePass(List<Path> runs, Path directory, int memory,
+				  ByteOrder order) throws IOException {
+	for (int g = 0; g < runs.size() - 1; ++g) {
+	    runs.add(g, Files.createTempFile(directory, "run", ".tmp"));
+
+	    List<Path> group = runs.subList(
+		g + 1, Math.min(g + 1 + MAX_FAN_IN, runs.size()));
+	    mergeRuns(group, runs.get(g), memory, order);
+	    for (Path run : group) {
+		Files.delete(run);
+	    }
+	    group.clear();
+	}
+    }
+
+    /**
+     * Merges the sorted runs into the output with a loser tree.
+     *
+     * @param runs   the names of the sorted runs
+     * @param output the file to write the merged ints into
+     * @param memory the number of bytes to spend on the read buffers
+     * @param order  the byte order of the ints
+     */
+    private static void mergeRuns(List<Path> runs, Path output, int memory,
+				  ByteOrder order) throws IOException {
+	int k = runs.size();
+	int bufferSize = Math.max(MIN_READ_BUFFER, (memory / k) & ~3);
+
+	Run[] run = new Run[k];
+	FileChannel out = FileChannel.open(
+	    output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+	    StandardOpenOption.TRUNCATE_EXISTING);
+	try {
+	    for (int i = 0; i < k; ++i) {
+		run[i] = new Run(runs.get(i), bufferSize, order);
+	    }
+
+	    ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER);
+	    buffer.order(order);
+	    IntBuffer ints = buffer.asIntBuffer();
+
+	    int[] tree = buildTree(run);
+	    while (!run[tree[0]].done) {
+		Run winner = run[tree[0]];
+
+		if (!ints.hasRemaining()) {
+		    flush(out, buffer, ints);
+		}
+		ints.put(winner.key);
+
+		winner.advance();
+		replay(run, tree, tree[0]);
+	    }
+
+	    flush(out, buffer, ints);
+	} finally {
+	    out.close();
+	    for (Run r : run) {
+		if (r != null) {
+		    r.close();
+		}
+	    }
+	}
+    }
+
+    /**
+     * Builds the loser tree of the runs. The runs are the leaves K..2K-1 of
+     * the tree, tree[1..K-1] hold the losers of the matches played at the
+     * internal nodes and tree[0] holds the overall winner.
+     */
+    private static int[] buildTree(Run[] run) {
+	int   k      = run.length;
+	int[] tree   = new int[k];
+	int[] winner = new int[2 * k];
+
+	for (int i = 0; i < k; ++i) {
+	    winner[k + i] = i;
+	}
+
+	/* play the matches bottom up, keeping the losers in the tree */
+	for (int node = k - 1; node >= 1; --node) {
+	    int left  = winner[2 * node];
+	    int right = winner[2 * node + 1];
+
+	    if (beats(run, left, right)) {
+		winner[node] = left;
+		tree[node]   = right;
+	    } else {
+		winner[node] = right;
+		tree[node]   = left;
+	    }
+	}
+
+	tree[0] = (k == 1) ? 0 : winner[1];
+
+	return tree;
+    }
+
+    /**
+     * Replays the matches on the path from the leaf of the run to the root
+     * after the run has moved on to its next element.
+     */
+    private static void replay(Run[] run, int[] tree, int leaf) {
+	int winner = leaf;
+
+	for (int node = (run.length + leaf) / 2; node >= 1; node /= 2) {
+	    if (beats(run, tree[node], winner)) {
+		int loser  = winner;
+		winner     = tree[node];
+		tree[node] = loser;
+	    }
+	}
+
+	tree[0] = winner;
+    }
+
+    /**
+     * An exhausted run loses every match; equal keys are won by the run that
+     * comes first, which keeps the merge stable.
+     *
+     * @return true if the run a wins its match against the run b
+     */
+    private static boolean beats(Run[] run, int a, int b) {
+	if (run[a].done || run[b].done) {
+	    return !run[a].done;
+	}
+
+	return (run[a].key < run[b].key)
+	    || ((run[a].key == run[b].key) && (a < b));
+    }
+
+    /**
+     * Writes the ints put into the buffer to the output.
+     */
+    private static void flush(
+            FileChannel out, ByteBuffer buffer, IntBuffer ints)
+	    throws IOException {
+	buffer.clear();
+	buffer.limit(4 * ints.position());
+	while (buffer.hasRemaining()) {
+	    out.write(buffer);
+	}
+	ints.clear();
+    }
+
+    /**
+     * A sorted run read sequentially through its own buffer.
+     */
+    private static final class Run {
+	private final FileChannel channel;
+	private final ByteBuffer  buffer;
+
+	/** the current element of the run */
+	int key;
+
+	/** true when the run has no more elements */
+	boolean done;
+
+	Run(Path file, int bufferSize, ByteOrder order) throws IOException {
+	    channel = FileChannel.open(file, StandardOpenOption.READ);
+	    buffer  = ByteBuffer.allocateDirect(bufferSize);
+	    buffer.order(order);
+	    buffer.flip();
+
+	    advance();
+	}
+
+	/**
+	 * Moves on to the next element of the run.
+	 */
+	void advance() throws IOException {
+	    if (buffer.remaining() < 4) {
+		buffer.compact();
+		while (buffer.hasRemaining() && (channel.read(buffer) >= 0)) {
+		    /* fill the whole buffer */
+		}
+		buffer.flip();
+
+		if (buffer.remaining() < 4) {
+		    done = true;
+		    return;
+		}
+	    }
+
+	    key = buffer.getInt();
+	}
+
+	void close() throws IOException {
+	    channel.close();
+	}
+    }
+
+    public static void main(String[] args) throws IOException {
+	/** the maximum size of a file */
+	int MAX_LEN = 20000000;
+
+	Path input  = Files.createTempFile("input", ".bin");
+	Path output = Files.createTempFile("output", ".bin");
+	try {
+	    java.util.Random random = new java.util.Random();
+	    ByteBuffer buffer = ByteBuffer.allocate(4 * MAX_LEN);
+	    for (int i = 0; i < MAX_LEN; i++) {
+		buffer.putInt(random.nextInt());
+	    }
+	    buffer.flip();
+	    write(input, buffer);
+
+	    long startTime = System.currentTimeMillis();
+	    sort(input, output, MAX_LEN / 8, ByteOrder.BIG_ENDIAN);
+	    long endTime = System.currentTimeMillis();
+	    float seconds = (endTime - startTime) / 1000F;
+
+	    IntBuffer sorted =
+		ByteBuffer.wrap(Files.readAllBytes(output)).asIntBuffer();
+	    for (int i = 1; i < sorted.limit(); i++) {
+		if (sorted.get(i - 1) > sorted.get(i)) {
+		    System.out.println("not sorted at " + i);
+		    break;
+		}
+	    }
+
+	    System.out.println(Float.toString(seconds) + " seconds.");
+	} finally {
+	    Files.deleteIfExists(input);
+	    Files.deleteIfExists(output);
+	}
+    }
+}
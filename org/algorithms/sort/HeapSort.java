@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2011 by Andrey Pudov
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+/**
+ * Heapsort begins by constructing a heap out of the data set, and then
+ * removing the largest item and placing it at the end of the list. After
+ * removing the largest item, it reconstructs the heap and removes the largest
+ * remaining item and places it in the next open position from the end of the
+ * list. This is repeated until there are no items left in the heap and the
+ * list is full. The heap is kept inside the list itself: the children of the
+ * element in location i are in locations 2i + 1 and 2i + 2, counted from the
+ * first element of the part of the list being sorted. Heapsort needs no
+ * extra space and always does O(N lg N) comparisons, which is why QuickSort
+ * falls back to it when its recursion gets too deep.
+ *
+ * @version 0.00 18 Oct 2026
+ * @author  Andrey Pudov
+ */
+class HeapSort {
+
+    /**
+     * @param list  the elements to be put into order
+     * @param first the index of the first element in the part of list to sort
+     * @param last  the index of the last element in the part of list to sort
+     */
+    static void HeapSort(int[] list, int first, int last) {
+	int n = last - first + 1;
+
+	/* construct the heap */
+	for (int i = n / 2 - 1; i >= 0; --i) {
+	    FixHeap(list, first, i, list[first + i], n);
+	}
+
+	/* move the largest element to the end and fix the rest of the heap */
+	for (int i = n - 1; i >= 1; --i) {
+	    int max = list[first];
+	    FixHeap(list, first, 0, list[first + i], i);
+	    list[first + i] = max;
+	}
+    }
+
+    /**
+     * Puts key into the heap at root, moving the larger children up until the
+     * place where key is not smaller than either of its children.
+     *
+     * @param list  the elements of the heap
+     * @param first the index of the first element of the heap in the list
+     * @param root  the location of the root of the heap to fix
+     * @param key   the value to insert into the heap
+     * @param bound the number of elements in the heap
+     */
+    private static void FixHeap(
+            int[] list, int first, int root, int key, int bound) {
+	int vacant = root;
+	int largerChild = 2 * vacant + 1;
+
+	while (largerChild < bound) {
+	    /* find the larger of the two children */
+	    if ((largerChild + 1 < bound)
+		    && (list[first + largerChild + 1]
+			> list[first + largerChild])) {
+		++largerChild;
+	    }
+
+	    if (key >= list[first + largerChild]) {
+		break;
+	    }
+
+	    /* move the larger child up */
+	    list[first + vacant] = list[first + largerChild];
+	    vacant = largerChild;
+	    largerChild = 2 * vacant + 1;
+	}
+
+	list[first + vacant] = key;
+    }
+
+    public static void main(String[] args) {
+	int[] list = {15, 4, 10, 8, 6, 9, 16, 1, 7, 3, 11, 14, 2, 5, 12, 13};
+
+	long startTime = System.currentTimeMillis();
+	HeapSort(list, 0, list.length - 1);
+	long endTime = System.currentTimeMillis();
+	float seconds = (endTime - startTime) / 1000F;
+
+	System.out.print("list:");
+	for (int i = 0; i < list.length; i++) {
+	    System.out.print(" " + list[i]);
+	}
+	System.out.print('\n');
+
+	System.out.println(Float.toString(seconds) + " seconds.");
+    }
+}
\ No newline at end of file
@@ -36,7 +36,7 @@
  * @version 0.00 27 Feb 2011
  * @author  Andrey Pudov  
  */
-class InsertionSort {
+public class InsertionSort implements Sorter {
 
     /**
      * @param list the elements to be put into order
@@ -60,6 +60,40 @@ class InsertionSort {
 	}
     }
 
+    /**
+     * The same algorithm applied to a part of the list, so that other sorts can
+     * use it to finish their small partitions.
+     *
+     * @param list  the elements to be put into order
+     * @param first the index of the first element in the part of list to sort
+     * @param last  the index of the last element in the part of list to sort
+     */
+    static void InsertionSort(int[] list, int first, int last) {
+	int newElement = 0;
+	int location = 0;
+
+	for (int i = first + 1; i <= last; ++i) {
+	    newElement = list[i];
+	    location = i - 1;
+
+	    while ((location >= first) && (list[location] > newElement)) {
+		/* move any larger elements out of the way */
+		list[location + 1] = list[location];
+		location = location - 1;
+	    }
+
+	    list[location + 1] = newElement;
+	}
+    }
+
+    /**
+     * @param list the elements to be put into order
+     * @param n    the number of elements in the list
+     */
+    public void sort(int[] list, int n) {
+	InsertionSort(list, n);
+    }
+
     public static void main(String[] args) {
 	int[] list = {15, 4, 10, 8, 6, 9, 16, 1, 7, 3, 11, 14, 2, 5, 12, 13};
 
@@ -0,0 +1,155 @@
+/**
+ * Copyright (C) 2011 by Andrey Pudov
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.util.List;
+import java.util.ListIterator;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Sorting a list of objects with a comparator computes the key of both
+ * objects on every comparison, follows a pointer to each of them, and calls
+ * the comparator through an interface that may have many implementations.
+ * The key sort computes the key of every object only once, into a list of
+ * primitive keys, and sorts the keys together with the positions of their
+ * objects by RadixSort. The sorted positions are a permutation that is then
+ * applied to the objects in a single pass. RadixSort is stable, so objects
+ * with equal keys keep their order.
+ *
+ * @version 0.00 18 Oct 2026
+ * @author  Andrey Pudov
+ */
+public class KeySort {
+
+    /**
+     * @param list the objects to be put into order
+     * @param key  the function that computes the int key of an object
+     */
+    public static <T> void sortByInt(T[] list, ToIntFunction<? super T> key) {
+	int   n     = list.length;
+	int[] keys  = new int[n];
+	int[] index = new int[n];
+
+	for (int i = 0; i < n; ++i) {
+	    keys[i]  = key.applyAsInt(list[i]);
+	    index[i] = i;
+	}
+
+	if (n > 1) {
+	    RadixSort.sort(keys, index, 0, n - 1);
+	    permute(list, index);
+	}
+    }
+
+    /**
+     * @param list the objects to be put into order
+     * @param key  the function that computes the long key of an object
+     */
+    public static <T> void sortByLong(T[] list, ToLongFunction<? super T> key) {
+	int    n     = list.length;
+	long[] keys  = new long[n];
+	int[]  index = new int[n];
+
+	for (int i = 0; i < n; ++i) {
+	    keys[i]  = key.applyAsLong(list[i]);
+	    index[i] = i;
+	}
+
+	if (n > 1) {
+	    RadixSort.sort(keys, index, 0, n - 1);
+	    permute(list, index);
+	}
+    }
+
+    /**
+     * @param list the objects to be put into order
+     * @param key  the function that computes the int key of an object
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void sortByInt(List<T> list,
+				     ToIntFunction<? super T> key) {
+	T[] array = (T[]) list.toArray();
+
+	sortByInt(array, key);
+	copyBack(array, list);
+    }
+
+    /**
+     * @param list the objects to be put into order
+     * @param key  the function that computes the long key of an object
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void sortByLong(List<T> list,
+				      ToLongFunction<? super T> key) {
+	T[] array = (T[]) list.toArray();
+
+	sortByLong(array, key);
+	copyBack(array, list);
+    }
+
+    /**
+     * Moves the object at position index[i] of the list to position i.
+     */
+    private static <T> void permute(T[] list, int[] index) {
+	T[] copy = list.clone();
+
+	for (int i = 0; i < list.length; ++i) {
+	    list[i] = copy[index[i]];
+	}
+    }
+
+    /**
+     * Replaces the elements of the list by the sorted ones.
+     */
+    private static <T> void copyBack(T[] array, List<T> list) {
+	ListIterator<T> iterator = list.listIterator();
+
+	for (int i = 0; i < array.length; ++i) {
+	    iterator.next();
+	    iterator.set(array[i]);
+	}
+    }
+
+    public static void main(String[] args) {
+	/** the maximum size of an array */
+	int MAX_LEN = 2000000;
+
+	java.util.Random random = new java.util.Random();
+	long[][] list = new long[MAX_LEN][];
+	for (int i = 0; i < list.length; i++) {
+	    list[i] = new long[] {random.nextLong(), i};
+	}
+	long[][] copy = list.clone();
+
+	long startTime = System.currentTimeMillis();
+	sortByLong(list, row -> row[0]);
+	long endTime = System.currentTimeMillis();
+	float seconds = (endTime - startTime) / 1000F;
+	System.out.println(Float.toString(seconds) + " seconds.");
+
+	startTime = System.currentTimeMillis();
+	java.util.Arrays.sort(copy, (a, b) -> Long.compare(a[0], b[0]));
+	endTime = System.currentTimeMillis();
+	seconds = (endTime - startTime) / 1000F;
+	System.out.println(Float.toString(seconds) + " seconds (comparator).");
+    }
+}
@@ -37,7 +37,7 @@
  * @version 0.00 27 Feb 2011
  * @author  Andrey Pudov  
  */
-class MergeSort {
+public class MergeSort implements Sorter {
 
     /**
      * @param list  the elements to be put into order
@@ -47,7 +47,10 @@ class MergeSort {
     private static void MergeSort(int[] list, int first, int last) {
 	int middle = 0;
 
-	if (first < last) {
+	/* small lists are sorted by a network rather than split further */
+	if (last - first < SortingNetwork.MAX) {
+	    SortingNetwork.sort(list, first, last);
+	} else {
 	    middle = (first + last) / 2;
 
 	    MergeSort(list, first, middle);
@@ -106,6 +109,533 @@ class MergeSort {
 	}
     }
 
+    /** the lists shorter than this are sorted as a single run */
+    private static final int MIN_MERGE = 32;
+
+    /** the number of wins in a row after which a merge starts galloping */
+    private static final int MIN_GALLOP = 7;
+
+    /**
+     * The natural merge sort does not split the list at the middle. Instead it
+     * takes the ascending runs that are already in the list (a strictly
+     * descending run is reversed in place), extends the short ones to a
+     * minimum length with a SortingNetwork, and pushes them onto a stack. The
+     * runs on the stack are merged as soon as their lengths stop decreasing
+     * fast enough, which keeps the merges balanced. A list that is already
+     * sorted is a single run and costs N - 1 comparisons, and a list that is
+     * almost sorted consists of a few long runs and costs close to O(N).
+     *
+     * When one run wins many comparisons in a row, the merge switches to
+     * galloping: it looks up the position of the next element of the other run
+     * with an exponential search and moves the whole block at once. Equal
+     * elements keep their order, so the sort is stable.
+     *
+     * @param list  the elements to be put into order
+     * @param first the index of the first element in the part of list to sort
+     * @param last  the index of the last element in the part of list to sort
+     */
+    public static void NaturalMergeSort(int[] list, int first, int last) {
+	int lo = first;
+	int hi = last + 1;
+	int nRemaining = hi - lo;
+
+	if (nRemaining < 2) {
+	    return;
+	}
+
+	/* a short list is a single run, sorted by a network unless it is one */
+	if (nRemaining < MIN_MERGE) {
+	    if (CountRun(list, lo, hi) < nRemaining) {
+		SortingNetwork.sort(list, lo, hi - 1);
+	    }
+	    return;
+	}
+
+	RunStack stack = new RunStack(list);
+	int minRun = MinRunLength(nRemaining);
+
+	do {
+	    int runLength = CountRun(list, lo, hi);
+
+	    if (runLength < minRun) {
+		int force = Math.min(nRemaining, minRun);
+		SortingNetwork.sort(list, lo, lo + force - 1);
+		runLength = force;
+	    }
+
+	    stack.push(lo, runLength);
+	    stack.mergeCollapse();
+
+	    lo += runLength;
+	    nRemaining -= runLength;
+	} while (nRemaining != 0);
+
+	stack.mergeForceCollapse();
+    }
+
+    /**
+     * Returns the length of the run that starts at lo. A strictly descending
+     * run is reversed, so the run is always ascending afterwards; descending
+     * runs must be strict so that reversing them keeps the sort stable.
+     *
+     * @param list the elements to work with
+     * @param lo   the index of the first element of the run
+     * @param hi   the index after the last element that may be in the run
+     */
+    private static int CountRun(int[] list, int lo, int hi) {
+	int runHi = lo + 1;
+
+	if (runHi == hi) {
+	    return 1;
+	}
+
+	if (list[runHi++] < list[lo]) {
+	    /* descending */
+	    while ((runHi < hi) && (list[runHi] < list[runHi - 1])) {
+		++runHi;
+	    }
+
+	    for (int i = lo, j = runHi - 1; i < j; ++i, --j) {
+		int t = list[i];
+		list[i] = list[j];
+		list[j] = t;
+	    }
+	} else {
+	    /* ascending */
+	    while ((runHi < hi) && (list[runHi] >= list[runHi - 1])) {
+		++runHi;
+	    }
+	}
+
+	return runHi - lo;
+    }
+
+    /**
+     * Returns the minimum length of a run, a number between MIN_MERGE / 2 and
+     * MIN_MERGE such that n / minRun is a power of two or slightly less, so
+     * that the final merges are balanced.
+     */
+    private static int MinRunLength(int n) {
+	int r = 0;
+
+	while (n >= MIN_MERGE) {
+	    r |= (n & 1);
+	    n >>= 1;
+	}
+
+	return n + r;
+    }
+
+    /**
+     * Returns the index k in list[base..base+length) such that the elements
+     * before k are less than key and the others are not, searching outward
+     * from base + hint with growing steps.
+     */
+    private static int GallopLeft(
+            int key, int[] list, int base, int length, int hint) {
+	int lastOffset = 0;
+	int offset     = 1;
+
+	if (key > list[base + hint]) {
+	    /* gallop right until list[base + hint + offset] >= key */
+	    int maxOffset = length - hint;
+	    while ((offset < maxOffset)
+		   && (key > list[base + hint + offset])) {
+		lastOffset = offset;
+		offset = (offset << 1) + 1;
+		if (offset <= 0) {
+		    offset = maxOffset;
+		}
+	    }
+	    offset = Math.min(offset, maxOffset);
+
+	    lastOffset += hint;
+	    offset     += hint;
+	} else {
+	    /* gallop left until list[base + hint - offset] < key */
+	    int maxOffset = hint + 1;
+	    while ((offset < maxOffset)
+		   && (key <= list[base + hint - offset])) {
+		lastOffset = offset;
+		offset = (offset << 1) + 1;
+		if (offset <= 0) {
+		    offset = maxOffset;
+		}
+	    }
+	    offset = Math.min(offset, maxOffset);
+
+	    int t = lastOffset;
+	    lastOffset = hint - offset;
+	    offset     = hint - t;
+	}
+
+	/* list[base + lastOffset] < key <= list[base + offset] */
+	++lastOffset;
+	while (lastOffset < offset) {
+	    int middle = (lastOffset + offset) >>> 1;
+
+	    if (key > list[base + middle]) {
+		lastOffset = middle + 1;
+	    } else {
+		offset = middle;
+	    }
+	}
+
+	return offset;
+    }
+
+    /**
+     * Returns the index k in list[base..base+length) such that the elements
+     * before k are not greater than key and the others are, searching outward
+     * from base + hint with growing steps.
+     */
+    private static int GallopRight(
+            int key, int[] list, int base, int length, int hint) {
+	int lastOffset = 0;
+	int offset     = 1;
+
+	if (key < list[base + hint]) {
+	    /* gallop left until list[base + hint - offset] <= key */
+	    int maxOffset = hint + 1;
+	    while ((offset < maxOffset)
+		   && (key < list[base + hint - offset])) {
+		lastOffset = offset;
+		offset = (offset << 1) + 1;
+		if (offset <= 0) {
+		    offset = maxOffset;
+		}
+	    }
+	    offset = Math.min(offset, maxOffset);
+
+	    int t = lastOffset;
+	    lastOffset = hint - offset;
+	    offset     = hint - t;
+	} else {
+	    /* gallop right until list[base + hint + offset] > key */
+	    int maxOffset = length - hint;
+	    while ((offset < maxOffset)
+		   && (key >= list[base + hint + offset])) {
+		lastOffset = offset;
+		offset = (offset << 1) + 1;
+		if (offset <= 0) {
+		    offset = maxOffset;
+		}
+	    }
+	    offset = Math.min(offset, maxOffset);
+
+	    lastOffset += hint;
+	    offset     += hint;
+	}
+
+	/* list[base + lastOffset] <= key < list[base + offset] */
+	++lastOffset;
+	while (lastOffset < offset) {
+	    int middle = (lastOffset + offset) >>> 1;
+
+	    if (key < list[base + middle]) {
+		offset = middle;
+	    } else {
+		lastOffset = middle + 1;
+	    }
+	}
+
+	return offset;
+    }
+
+    /**
+     * The stack of runs waiting to be merged by NaturalMergeSort, together
+     * with the auxiliary list used by the merges. The auxiliary list grows
+     * when a merge needs more room and is reused by all the other merges.
+     */
+    private static final class RunStack {
+	private final int[] list;
+	private final int[] runBase = new int[64];
+	private final int[] runLen  = new int[64];
+	private int size = 0;
+	private int[] aux = new int[256];
+
+	RunStack(int[] list) {
+	    this.list = list;
+	}
+
+	void push(int base, int length) {
+	    runBase[size] = base;
+	    runLen[size]  = length;
+	    ++size;
+	}
+
+	/**
+	 * Merges the runs at the top of the stack until, from the top down,
+	 * every run is longer than the run above it and longer than the two
+	 * runs above it together. The lengths then grow at least as fast as
+	 * the Fibonacci numbers, so the stack stays shorter than 64 runs.
+	 */
+	void mergeCollapse() {
+	    while (size > 1) {
+		int n = size - 2;
+
+		if (((n > 0) && (runLen[n - 1] <= runLen[n] + runLen[n + 1]))
+		    || ((n > 1)
+			&& (runLen[n - 2] <= runLen[n - 1] + runLen[n]))) {
+		    if (runLen[n - 1] < runLen[n + 1]) {
+			--n;
+		    }
+		} else if (runLen[n] > runLen[n + 1]) {
+		    break;
+		}
+
+		mergeAt(n);
+	    }
+	}
+
+	/**
+	 * Merges all the runs on the stack into one.
+	 */
+	void mergeForceCollapse() {
+	    while (size > 1) {
+		int n = size - 2;
+
+		if ((n > 0) && (runLen[n - 1] < runLen[n + 1])) {
+		    --n;
+		}
+
+		mergeAt(n);
+	    }
+	}
+
+	/**
+	 * Merges the runs at positions i and i + 1 of the stack.
+	 */
+	private void mergeAt(int i) {
+	    int base1   = runBase[i];
+	    int length1 = runLen[i];
+	    int base2   = runBase[i + 1];
+	    int length2 = runLen[i + 1];
+
+	    runLen[i] = length1 + length2;
+	    if (i == size - 3) {
+		runBase[i + 1] = runBase[i + 2];
+		runLen[i + 1]  = runLen[i + 2];
+	    }
+	    --size;
+
+	    /* the elements of A not greater than B[0] are already in place */
+	    int k = GallopRight(list[base2], list, base1, length1, 0);
+	    base1   += k;
+	    length1 -= k;
+	    if (length1 == 0) {
+		return;
+	    }
+
+	    /* and so are the elements of B greater than the last one of A */
+	    length2 = GallopLeft(list[base1 + length1 - 1],
+				 list, base2, length2, length2 - 1);
+	    if (length2 == 0) {
+		return;
+	    }
+
+	    mergeLow(base1, length1, base2, length2);
+	}
+
+	/**
+	 * Merges the adjacent runs A = list[base1..base1+length1) and
+	 * B = list[base2..base2+length2). A is moved to the auxiliary list and
+	 * the result is written from base1 onwards; the destination never
+	 * overtakes the next element of B, so B can stay where it is.
+	 */
+	private void mergeLow(int base1, int length1, int base2, int length2) {
+	    if (aux.length < length1) {
+		aux = new int[Math.max(length1, 2 * aux.length)];
+	    }
+	    System.arraycopy(list, base1, aux, 0, length1);
+
+	    int cursor1 = 0;
+	    int cursor2 = base2;
+	    int end2    = base2 + length2;
+	    int dest    = base1;
+
+	outer:
+	    while (true) {
+		int count1 = 0;
+		int count2 = 0;
+
+		/* take one element at a time until one run keeps winning */
+		do {
+		    if (list[cursor2] < aux[cursor1]) {
+			list[dest++] = list[cursor2++];
+			++count2;
+			count1 = 0;
+			if (cursor2 == end2) {
+			    break outer;
+			}
+		    } else {
+			list[dest++] = aux[cursor1++];
+			++count1;
+			count2 = 0;
+			if (cursor1 == length1) {
+			    break outer;
+			}
+		    }
+		} while ((count1 | count2) < MIN_GALLOP);
+
+		/* gallop while the blocks moved at once stay long */
+		do {
+		    count1 = GallopRight(list[cursor2], aux, cursor1,
+					 length1 - cursor1, 0);
+		    if (count1 != 0) {
+			System.arraycopy(aux, cursor1, list, dest, count1);
+			dest    += count1;
+			cursor1 += count1;
+			if (cursor1 == length1) {
+			    break outer;
+			}
+		    }
+		    list[dest++] = list[cursor2++];
+		    if (cursor2 == end2) {
+			break outer;
+		    }
+
+		    count2 = GallopLeft(aux[cursor1], list, cursor2,
+					end2 - cursor2, 0);
+		    if (count2 != 0) {
+			System.arraycopy(list, cursor2, list, dest, count2);
+			dest    += count2;
+			cursor2 += count2;
+			if (cursor2 == end2) {
+			    break outer;
+			}
+		    }
+		    list[dest++] = aux[cursor1++];
+		    if (cursor1 == length1) {
+			break outer;
+		    }
+		} while ((count1 >= MIN_GALLOP) || (count2 >= MIN_GALLOP));
+	    }
+
+	    /* the rest of B is in place already, the rest of A is not */
+	    if (cursor1 < length1) {
+		System.arraycopy(aux, cursor1, list, dest, length1 - cursor1);
+	    }
+	}
+    }
+
+    /**
+     * The in-place merge sort splits the list the same way MergeSort does,
+     * but merges the sorted halves without a result list, by Kim and
+     * Kutzner's SymMerge. To merge A and B, the longer of the two is cut at
+     * its middle element, and a binary search finds the cut of the other one
+     * around which the list is symmetric: the part of A after its cut is
+     * moved behind the part of B before its cut by a rotation, and the
+     * two smaller merges on either side of the moved parts are done in the
+     * same way. A rotation moves each element a fixed distance, so equal
+     * elements keep their order and the sort is stable. The merges do
+     * O(N lg N) work each instead of O(N), so the sort takes O(N lg^2 N),
+     * but the only extra memory is the O(lg N) stack of the recursion.
+     *
+     * @param list  the elements to be put into order
+     * @param first the index of the first element in the part of list to sort
+     * @param last  the index of the last element in the part of list to sort
+     */
+    public static void InPlaceMergeSort(int[] list, int first, int last) {
+	if (last - first < SortingNetwork.MAX) {
+	    SortingNetwork.sort(list, first, last);
+	    return;
+	}
+
+	int middle = (first + last) >>> 1;
+
+	InPlaceMergeSort(list, first, middle);
+	InPlaceMergeSort(list, middle + 1, last);
+
+	/* the halves may already be in order */
+	if (list[middle] > list[middle + 1]) {
+	    SymMerge(list, first, middle + 1, last + 1);
+	}
+    }
+
+    /**
+     * Merges the sorted list[lo..middle) and list[middle..hi) in place.
+     */
+    private static void SymMerge(int[] list, int lo, int middle, int hi) {
+	/* a single element of A is moved into B at once */
+	if (middle - lo == 1) {
+	    int newElement = list[lo];
+	    int location   =
+		GallopLeft(newElement, list, middle, hi - middle, 0);
+
+	    System.arraycopy(list, middle, list, lo, location);
+	    list[lo + location] = newElement;
+	    return;
+	}
+
+	/* and so is a single element of B into A */
+	if (hi - middle == 1) {
+	    int newElement = list[middle];
+	    int location   =
+		GallopRight(newElement, list, lo, middle - lo, middle - lo - 1);
+
+	    System.arraycopy(list, lo + location, list, lo + location + 1,
+			     middle - lo - location);
+	    list[lo + location] = newElement;
+	    return;
+	}
+
+	int half   = (lo + hi) >>> 1;
+	int n      = half + middle;
+	int start  = (middle > half) ? n - hi : lo;
+	int end    = (middle > half) ? half : middle;
+
+	/* find the cut of A such that A[cut..] and B[..n - cut] swap places */
+	while (start < end) {
+	    int cut = (start + end) >>> 1;
+
+	    if (list[n - 1 - cut] >= list[cut]) {
+		start = cut + 1;
+	    } else {
+		end = cut;
+	    }
+	}
+	end = n - start;
+
+	if ((start < middle) && (middle < end)) {
+	    Rotate(list, start, middle, end);
+	}
+	if ((lo < start) && (start < half)) {
+	    SymMerge(list, lo, start, half);
+	}
+	if ((half < end) && (end < hi)) {
+	    SymMerge(list, half, end, hi);
+	}
+    }
+
+    /**
+     * Exchanges list[lo..middle) and list[middle..hi) by three reversals.
+     */
+    private static void Rotate(int[] list, int lo, int middle, int hi) {
+	Reverse(list, lo, middle);
+	Reverse(list, middle, hi);
+	Reverse(list, lo, hi);
+    }
+
+    /**
+     * Reverses the order of list[lo..hi).
+     */
+    private static void Reverse(int[] list, int lo, int hi) {
+	for (int i = lo, j = hi - 1; i < j; ++i, --j) {
+	    int t = list[i];
+	    list[i] = list[j];
+	    list[j] = t;
+	}
+    }
+
+    /**
+     * @param list the elements to be put into order
+     * @param n    the number of elements in the list
+     */
+    public void sort(int[] list, int n) {
+	NaturalMergeSort(list, 0, n - 1);
+    }
+
     public static void main(String[] args) {
 	int[] list = {15, 4, 10, 8, 6, 9, 16, 1, 7, 3, 11, 14, 2, 5, 12, 13};
 
@@ -121,5 +651,32 @@ class MergeSort {
 	System.out.print('\n');
 
 	System.out.println(Float.toString(seconds) + " seconds.");
+
+	/* compare the in-place merge with the buffered one */
+	int MAX_LEN = 2000000;
+
+	java.util.Random random = new java.util.Random();
+	int[] source = new int[MAX_LEN];
+	for (int i = 0; i < source.length; i++) {
+	    source[i] = random.nextInt();
+	}
+
+	for (int pass = 0; pass < 2; pass++) {       // the first one warms up
+	    list = source.clone();
+	    startTime = System.currentTimeMillis();
+	    MergeSort(list, 0, list.length - 1);
+	    endTime = System.currentTimeMillis();
+	    seconds = (endTime - startTime) / 1000F;
+	    System.out.println("MergeSort: " + Float.toString(seconds)
+			       + " seconds.");
+
+	    list = source.clone();
+	    startTime = System.currentTimeMillis();
+	    InPlaceMergeSort(list, 0, list.length - 1);
+	    endTime = System.currentTimeMillis();
+	    seconds = (endTime - startTime) / 1000F;
+	    System.out.println("InPlaceMergeSort: " + Float.toString(seconds)
+			       + " seconds.");
+	}
     }
 }
\ No newline at end of file
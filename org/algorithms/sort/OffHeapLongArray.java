@@ -0,0 +1,182 @@
+/**
+ * Copyright (C) 2011 by Andrey Pudov
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.file.Path;
+
+/**
+ * A list of longs indexed by long, kept outside of the Java heap. A Java array
+ * holds at most 2^31 - 1 elements and lives on the heap, where the collector
+ * has to look after it. This list is made of buffers of 2^27 longs (1 GiB)
+ * each, so it may hold many billions of elements, and the collector only
+ * sees the small buffer objects.
+ *
+ * The buffers are either anonymous memory or a mapping of a file:
+ *
+ *   new OffHeapLongArray(length) allocates direct buffers. They count against
+ *   -XX:MaxDirectMemorySize, which defaults to the largest heap, -Xmx, so a
+ *   list larger than the heap needs that flag raised to its size;
+ *   new OffHeapLongArray(length, file) maps the given file instead, which
+ *   is not limited by the flag but needs free disk space for the whole list,
+ *   and the operating system writes the changed pages back to the file, so
+ *   the file should be on a fast disk or in memory, such as /dev/shm.
+ *
+ * close gives the memory back, or unmaps the file, at once; without it that
+ * happens only when the collector finds the list no longer reachable. The
+ * list must not be used after it is closed.
+ *
+ * Element i is element i mod 2^27 of buffer i / 2^27. The bulk get and put
+ * copy whole runs of elements between the list and a long[], crossing from
+ * one buffer to the next where needed.
+ *
+ * @version 0.00 18 Oct 2026
+ * @author  Andrey Pudov
+ */
+public final class OffHeapLongArray implements AutoCloseable {
+
+    /** lg of the number of elements in a buffer */
+    private static final int CHUNK_SHIFT = 27;
+
+    /** the number of elements in a buffer */
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    /** the chunks, kept so that close can free them */
+    private ByteBuffer[] buffers;
+
+    /** the chunks seen as longs */
+    private LongBuffer[] chunks;
+
+    private final long length;
+
+    /**
+     * Allocates the list in anonymous memory.
+     *
+     * @param length the number of elements, all of them 0 at first
+     */
+    public OffHeapLongArray(long length) {
+	this(length, OffHeapMemory.allocate(Long.BYTES * check(length)));
+    }
+
+    /**
+     * Maps the list onto the first length longs of the file, which is created
+     * or grown if needed. The elements are those in the file, in the native
+     * byte order, and stay there after the list is closed.
+     *
+     * @param length the number of elements
+     * @param file   the file that holds the elements
+     */
+    public OffHeapLongArray(long length, Path file) throws IOException {
+	this(length, OffHeapMemory.map(file, Long.BYTES * check(length)));
+    }
+
+    private OffHeapLongArray(long length, ByteBuffer[] buffers) {
+	this.buffers = buffers;
+	this.chunks  = new LongBuffer[buffers.length];
+	this.length  = length;
+
+	for (int c = 0; c < buffers.length; ++c) {
+	    chunks[c] = buffers[c].asLongBuffer();
+	}
+    }
+
+    /**
+     * @return the length, which must not be negative
+     */
+    private static long check(long length) {
+	if (length < 0) {
+	    throw new IllegalArgumentException("negative length: " + length);
+	}
+
+	return length;
+    }
+
+    /**
+     * Gives the memory of the list back, or unmaps its file, at once. The
+     * list must not be used afterwards.
+     */
+    public void close() {
+	ByteBuffer[] freed = buffers;
+
+	chunks  = new LongBuffer[0];
+	buffers = new ByteBuffer[0];
+	OffHeapMemory.free(freed);
+    }
+
+    /**
+     * @return the number of elements in the list
+     */
+    public long length() {
+	return length;
+    }
+
+    public long get(long index) {
+	return chunks[(int) (index >>> CHUNK_SHIFT)]
+	    .get((int) index & (CHUNK_SIZE - 1));
+    }
+
+    public void set(long index, long value) {
+	chunks[(int) (index >>> CHUNK_SHIFT)]
+	    .put((int) index & (CHUNK_SIZE - 1), value);
+    }
+
+    public void swap(long i, long j) {
+	long t = get(i);
+	set(i, get(j));
+	set(j, t);
+    }
+
+    /**
+     * Copies count elements from location index on into dst from offset on.
+     */
+    public void get(long index, long[] dst, int offset, int count) {
+	while (count > 0) {
+	    LongBuffer chunk = chunks[(int) (index >>> CHUNK_SHIFT)];
+	    int from = (int) index & (CHUNK_SIZE - 1);
+	    int size = Math.min(count, chunk.capacity() - from);
+
+	    chunk.get(from, dst, offset, size);
+
+	    index  += size;
+	    offset += size;
+	    count  -= size;
+	}
+    }
+
+    /**
+     * Copies count elements of src from offset on to location index on.
+     */
+    public void put(long index, long[] src, int offset, int count) {
+	while (count > 0) {
+	    LongBuffer chunk = chunks[(int) (index >>> CHUNK_SHIFT)];
+	    int from = (int) index & (CHUNK_SIZE - 1);
+	    int size = Math.min(count, chunk.capacity() - from);
+
+	    chunk.put(from, src, offset, size);
+
+	    index  += size;
+	    offset += size;
+	    count  -= size;
+	}
+    }
+}
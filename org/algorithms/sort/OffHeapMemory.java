@@ -0,0 +1,143 @@
+/**
+ * Copyright (C) 2011 by Andrey Pudov
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Allocates and frees the buffers of OffHeapIntArray and OffHeapLongArray.
+ * A buffer is either anonymous memory, a direct buffer, or a mapping of a
+ * file given by the caller; both are cut into chunks of at most 1 GiB, the
+ * largest capacity of a buffer that is a power of two.
+ *
+ * The collector frees the memory of a buffer only when it finds the buffer
+ * unreachable, which for a few small buffer objects may take very long or
+ * never happen. free releases the memory, or unmaps the file, at once,
+ * through sun.misc.Unsafe.invokeCleaner, the only way to do so that JDK 17
+ * offers; a buffer must not be touched after it is freed.
+ *
+ * @version 0.00 18 Oct 2026
+ * @author  Andrey Pudov
+ */
+final class OffHeapMemory {
+
+    /** lg of the number of bytes in a chunk */
+    static final int CHUNK_SHIFT = 30;
+
+    private static final sun.misc.Unsafe UNSAFE;
+
+    static {
+	try {
+	    Field field = sun.misc.Unsafe.class.getDeclaredField("theUnsafe");
+	    field.setAccessible(true);
+	    UNSAFE = (sun.misc.Unsafe) field.get(null);
+	} catch (ReflectiveOperationException e) {
+	    throw new ExceptionInInitializerError(e);
+	}
+    }
+
+    private OffHeapMemory() {
+    }
+
+    /**
+     * @param bytes the number of bytes, all of them 0 at first
+     * @return      direct buffers of 2^CHUNK_SHIFT bytes, the last one
+     *              shorter, in the native byte order
+     */
+    static ByteBuffer[] allocate(long bytes) {
+	ByteBuffer[] chunks = new ByteBuffer[count(bytes)];
+
+	try {
+	    for (int c = 0; c < chunks.length; ++c) {
+		chunks[c] = ByteBuffer.allocateDirect(size(bytes, c))
+		    .order(ByteOrder.nativeOrder());
+	    }
+	} catch (OutOfMemoryError e) {
+	    /* give back the chunks already allocated before failing */
+	    free(chunks);
+	    throw e;
+	}
+
+	return chunks;
+    }
+
+    /**
+     * Maps the first bytes of the file, creating the file or growing it to
+     * that size if needed.
+     *
+     * @param file  the file that holds the buffers
+     * @param bytes the number of bytes
+     * @return      buffers of 2^CHUNK_SHIFT bytes, the last one shorter, in
+     *              the native byte order
+     */
+    static ByteBuffer[] map(Path file, long bytes) throws IOException {
+	ByteBuffer[] chunks = new ByteBuffer[count(bytes)];
+
+	try (FileChannel channel = FileChannel.open(file,
+		 StandardOpenOption.CREATE, StandardOpenOption.READ,
+		 StandardOpenOption.WRITE)) {
+	    for (int c = 0; c < chunks.length; ++c) {
+		/* the mapping stays valid after the channel is closed */
+		chunks[c] = channel.map(FileChannel.MapMode.READ_WRITE,
+					(long) c << CHUNK_SHIFT,
+					size(bytes, c))
+		    .order(ByteOrder.nativeOrder());
+	    }
+	} catch (IOException e) {
+	    free(chunks);
+	    throw e;
+	}
+
+	return chunks;
+    }
+
+    /**
+     * Frees the memory of the buffers, or unmaps them, at once.
+     */
+    static void free(ByteBuffer[] chunks) {
+	for (ByteBuffer chunk : chunks) {
+	    if (chunk != null) {
+		UNSAFE.invokeCleaner(chunk);
+	    }
+	}
+    }
+
+    /**
+     * @return the number of chunks that hold the bytes
+     */
+    private static int count(long bytes) {
+	return (int) ((bytes + (1L << CHUNK_SHIFT) - 1) >>> CHUNK_SHIFT);
+    }
+
+    /**
+     * @return the number of bytes in chunk c
+     */
+    private static int size(long bytes, int c) {
+	return (int) Math.min(1L << CHUNK_SHIFT,
+			      bytes - ((long) c << CHUNK_SHIFT));
+    }
+}
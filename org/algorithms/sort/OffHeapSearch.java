@@ -0,0 +1,324 @@
+/**
+ * Copyright (C) 2011 by Andrey Pudov
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+/**
+ * Searches the off-heap lists, whose indices are longs. The searches are
+ * those of BinarySearch and SequentialSearch; they are kept here, next to
+ * OffHeapIntArray and OffHeapLongArray, so that the search directory still
+ * compiles on its own, without the classes of this one.
+ *
+ * The binary search and the branch-free lowerBound, upperBound, equalRange
+ * and countInRange read one element of the list at every probe with get.
+ * The sequential search copies the list a block at a time into a Java array
+ * with a bulk get and scans the block there, comparing LANES elements at a
+ * time, rather than paying for the chunk lookup of a get on every element.
+ *
+ * @version 0.00 18 Oct 2026
+ * @author  Andrey Pudov
+ */
+public class OffHeapSearch {
+
+    /** the number of elements copied at once by the sequential search */
+    private static final int BLOCK = 4096;
+
+    /** the number of elements compared at once by the sequential search */
+    private static final int LANES = 8;
+
+    /**
+     * @param list   the sorted elements to be searching
+     * @param target the value being searched for
+     * @param n      the number of elements in the list
+     * @return       index of the search key, or -1 if it is not there
+     */
+    public static long binarySearch(OffHeapIntArray list, int target, long n) {
+	long start = 0;
+	long end   = n - 1;
+
+	while (start <= end) {
+	    long middle = (start + end) >>> 1;
+	    int  value  = list.get(middle);
+
+	    if (value < target) {
+		start = middle + 1;
+	    } else if (value > target) {
+		end = middle - 1;
+	    } else {
+		return middle;
+	    }
+	}
+
+	return -1;
+    }
+
+    /**
+     * @param list   the sorted elements to be searching
+     * @param target the value being searched for
+     * @param n      the number of elements in the list
+     * @return       index of the search key, or -1 if it is not there
+     */
+    public static long binarySearch(OffHeapLongArray list, long target,
+				    long n) {
+	long start = 0;
+	long end   = n - 1;
+
+	while (start <= end) {
+	    long middle = (start + end) >>> 1;
+	    long value  = list.get(middle);
+
+	    if (value < target) {
+		start = middle + 1;
+	    } else if (value > target) {
+		end = middle - 1;
+	    } else {
+		return middle;
+	    }
+	}
+
+	return -1;
+    }
+
+    /**
+     * @param list   the elements to be searching
+     * @param target the value being searched for
+     * @param n      the number of elements in the list
+     * @return       index of the first occurrence of the search key, or -1
+     *               if it is not there
+     */
+    public static long sequentialSearch(OffHeapIntArray list, int target,
+					long n) {
+	int[] block = new int[(int) Math.min(n, BLOCK)];
+
+	for (long first = 0; first < n; first += BLOCK) {
+	    int size = (int) Math.min(n - first, BLOCK);
+
+	    list.get(first, block, 0, size);
+
+	    int i = scan(block, target, size);
+	    if (i >= 0) {
+		return first + i;
+	    }
+	}
+
+	return -1;
+    }
+
+    /**
+     * @param list   the elements to be searching
+     * @param target the value being searched for
+     * @param n      the number of elements in the list
+     * @return       index of the first occurrence of the search key, or -1
+     *               if it is not there
+     */
+    public static long sequentialSearch(OffHeapLongArray list, long target,
+					long n) {
+	long[] block = new long[(int) Math.min(n, BLOCK)];
+
+	for (long first = 0; first < n; first += BLOCK) {
+	    int size = (int) Math.min(n - first, BLOCK);
+
+	    list.get(first, block, 0, size);
+	    for (int i = 0; i < size; i++) {
+		if (target == block[i]) {
+		    return first + i;
+		}
+	    }
+	}
+
+	return -1;
+    }
+
+    /**
+     * @param list   the sorted elements to be searching
+     * @param target the value being searched for
+     * @param n      the number of elements in the list
+     * @return       the index of the first element that is not smaller than
+     *               the target, or n if there is none
+     */
+    public static long lowerBound(OffHeapIntArray list, int target, long n) {
+	return bound(list, target, 0, n);
+    }
+
+    /**
+     * @param list   the sorted elements to be searching
+     * @param target the value being searched for
+     * @param n      the number of elements in the list
+     * @return       the index of the first element that is greater than the
+     *               target, or n if there is none
+     */
+    public static long upperBound(OffHeapIntArray list, int target, long n) {
+	return (target == Integer.MAX_VALUE)
+	    ? n : bound(list, target + 1, 0, n);
+    }
+
+    /**
+     * @param list   the sorted elements to be searching
+     * @param target the value being searched for
+     * @param n      the number of elements in the list
+     * @return       the lower and the upper bound of the target, the
+     *               elements equal to it being those in between
+     */
+    public static long[] equalRange(OffHeapIntArray list, int target, long n) {
+	long lower = bound(list, target, 0, n);
+	long upper = (target == Integer.MAX_VALUE)
+	    ? n : bound(list, target + 1, lower, n - lower);
+
+	return new long[] {lower, upper};
+    }
+
+    /**
+     * @param list the sorted elements to be searching
+     * @param low  the smallest value counted
+     * @param high the largest value counted
+     * @param n    the number of elements in the list
+     * @return     the number of elements from low to high inclusive
+     */
+    public static long countInRange(OffHeapIntArray list, int low, int high,
+				    long n) {
+	if (low > high) {
+	    return 0;
+	}
+
+	return upperBound(list, high, n) - lowerBound(list, low, n);
+    }
+
+    /**
+     * @return the index of the first element of list[base..base+length-1]
+     *         that is not smaller than the target, or base + length
+     */
+    private static long bound(OffHeapIntArray list, int target, long base,
+			      long length) {
+	if (length == 0) {
+	    return base;
+	}
+
+	while (length > 1) {
+	    long half = length >>> 1;
+
+	    base    = (list.get(base + half - 1) < target) ? base + half : base;
+	    length -= half;
+	}
+
+	return base + ((list.get(base) < target) ? 1 : 0);
+    }
+
+    /**
+     * @param list   the sorted elements to be searching
+     * @param target the value being searched for
+     * @param n      the number of elements in the list
+     * @return       the index of the first element that is not smaller than
+     *               the target, or n if there is none
+     */
+    public static long lowerBound(OffHeapLongArray list, long target, long n) {
+	return bound(list, target, 0, n);
+    }
+
+    /**
+     * @param list   the sorted elements to be searching
+     * @param target the value being searched for
+     * @param n      the number of elements in the list
+     * @return       the index of the first element that is greater than the
+     *               target, or n if there is none
+     */
+    public static long upperBound(OffHeapLongArray list, long target, long n) {
+	return (target == Long.MAX_VALUE)
+	    ? n : bound(list, target + 1, 0, n);
+    }
+
+    /**
+     * @param list   the sorted elements to be searching
+     * @param target the value being searched for
+     * @param n      the number of elements in the list
+     * @return       the lower and the upper bound of the target, the
+     *               elements equal to it being those in between
+     */
+    public static long[] equalRange(OffHeapLongArray list, long target,
+				    long n) {
+	long lower = bound(list, target, 0, n);
+	long upper = (target == Long.MAX_VALUE)
+	    ? n : bound(list, target + 1, lower, n - lower);
+
+	return new long[] {lower, upper};
+    }
+
+    /**
+     * @param list the sorted elements to be searching
+     * @param low  the smallest value counted
+     * @param high the largest value counted
+     * @param n    the number of elements in the list
+     * @return     the number of elements from low to high inclusive
+     */
+    public static long countInRange(OffHeapLongArray list, long low,
+				    long high, long n) {
+	if (low > high) {
+	    return 0;
+	}
+
+	return upperBound(list, high, n) - lowerBound(list, low, n);
+    }
+
+    /**
+     * @return the index of the first element of list[base..base+length-1]
+     *         that is not smaller than the target, or base + length
+     */
+    private static long bound(OffHeapLongArray list, long target, long base,
+			      long length) {
+	if (length == 0) {
+	    return base;
+	}
+
+	while (length > 1) {
+	    long half = length >>> 1;
+
+	    base    = (list.get(base + half - 1) < target) ? base + half : base;
+	    length -= half;
+	}
+
+	return base + ((list.get(base) < target) ? 1 : 0);
+    }
+
+    /**
+     * @return the index of the first target in block[0..size), or -1
+     */
+    private static int scan(int[] block, int target, int size) {
+	int i = 0;
+
+	for (; i + LANES <= size; i += LANES) {
+	    boolean hit = (block[i]     == target) | (block[i + 1] == target)
+		| (block[i + 2] == target) | (block[i + 3] == target)
+		| (block[i + 4] == target) | (block[i + 5] == target)
+		| (block[i + 6] == target) | (block[i + 7] == target);
+
+	    if (hit) {
+		break;
+	    }
+	}
+
+	/* the lanes with the target, or the elements after the last lanes */
+	for (; i < size; i++) {
+	    if (target == block[i]) {
+		return i;
+	    }
+	}
+
+	return -1;
+    }
+}
@@ -0,0 +1,347 @@
+/**
+ * Copyright (C) 2011 by Andrey Pudov
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+/**
+ * Sorts the off-heap lists, whose indices are longs. The large parts of the
+ * list are partitioned in place the same way as by IntroSort, around the
+ * median of the first, middle and last elements, recursing into the smaller
+ * part only and falling back to a heapsort when the recursion gets deeper
+ * than 2 lg N. Once a part is small enough, up to 2^20 elements, it is copied
+ * into a Java array with a bulk get, sorted there by the sorts for int[] and
+ * long[], which do not pay for the bounds checks and index arithmetic of
+ * every get and set, and copied back with a bulk put. The array is allocated
+ * once and reused for every such part.
+ *
+ * @version 0.00 18 Oct 2026
+ * @author  Andrey Pudov
+ */
+public class OffHeapSort {
+
+    /** the parts up to this size are sorted in a Java array */
+    private static final int LOCAL_THRESHOLD = 1 << 20;
+
+    /**
+     * @param list  the elements to be put into order
+     * @param first the index of the first element in the part of list to sort
+     * @param last  the index of the last element in the part of list to sort
+     */
+    public static void sort(OffHeapIntArray list, long first, long last) {
+	long n = last - first + 1;
+
+	if (n > 1) {
+	    sort(list, first, last,
+		 2 * (63 - Long.numberOfLeadingZeros(n)),
+		 new int[(int) Math.min(n, LOCAL_THRESHOLD)]);
+	}
+    }
+
+    /**
+     * @param list  the elements to be put into order
+     * @param first the index of the first element in the part of list to sort
+     * @param last  the index of the last element in the part of list to sort
+     */
+    public static void sort(OffHeapLongArray list, long first, long last) {
+	long n = last - first + 1;
+
+	if (n > 1) {
+	    int size = (int) Math.min(n, LOCAL_THRESHOLD);
+
+	    sort(list, first, last,
+		 2 * (63 - Long.numberOfLeadingZeros(n)),
+		 new long[size], new long[size]);
+	}
+    }
+
+    /**
+     * @param list       the elements to be put into order
+     * @param first      the index of the first element in the part to sort
+     * @param last       the index of the last element in the part to sort
+     * @param depthLimit the number of partitions left before the heapsort
+     * @param local      the array the small parts are sorted in
+     */
+    private static void sort(OffHeapIntArray list, long first, long last,
+			     int depthLimit, int[] local) {
+	while (last - first + 1 > LOCAL_THRESHOLD) {
+	    if (depthLimit == 0) {
+		heapSort(list, first, last);
+		return;
+	    }
+	    --depthLimit;
+
+	    long pivot = PivotList(list, first, last);
+
+	    /* recurse into the smaller part and loop over the larger one */
+	    if (pivot - first < last - pivot) {
+		sort(list, first, pivot - 1, depthLimit, local);
+		first = pivot + 1;
+	    } else {
+		sort(list, pivot + 1, last, depthLimit, local);
+		last = pivot - 1;
+	    }
+	}
+
+	int n = (int) (last - first + 1);
+	if (n > 1) {
+	    list.get(first, local, 0, n);
+	    QuickSort.IntroSort(local, 0, n - 1);
+	    list.put(first, local, 0, n);
+	}
+    }
+
+    /**
+     * @param list       the elements to be put into order
+     * @param first      the index of the first element in the part to sort
+     * @param last       the index of the last element in the part to sort
+     * @param depthLimit the number of partitions left before the heapsort
+     * @param local      the array the small parts are sorted in
+     * @param buffer     the auxiliary list of RadixSort
+     */
+    private static void sort(OffHeapLongArray list, long first, long last,
+			     int depthLimit, long[] local, long[] buffer) {
+	while (last - first + 1 > LOCAL_THRESHOLD) {
+	    if (depthLimit == 0) {
+		heapSort(list, first, last);
+		return;
+	    }
+	    --depthLimit;
+
+	    long pivot = PivotList(list, first, last);
+
+	    /* recurse into the smaller part and loop over the larger one */
+	    if (pivot - first < last - pivot) {
+		sort(list, first, pivot - 1, depthLimit, local, buffer);
+		first = pivot + 1;
+	    } else {
+		sort(list, pivot + 1, last, depthLimit, local, buffer);
+		last = pivot - 1;
+	    }
+	}
+
+	int n = (int) (last - first + 1);
+	if (n > 1) {
+	    list.get(first, local, 0, n);
+	    RadixSort.sort(local, 0, n - 1, buffer);
+	    list.put(first, local, 0, n);
+	}
+    }
+
+    /**
+     * Partitions around the median of the first, middle and last elements
+     * the same way as QuickSort.PivotListMedian.
+     *
+     * @return the final location of the pivot
+     */
+    private static long PivotList(OffHeapIntArray list, long first, long last) {
+	long middle = (first + last) >>> 1;
+
+	if (list.get(middle) < list.get(first)) {
+	    list.swap(first, middle);
+	}
+	if (list.get(last) < list.get(middle)) {
+	    list.swap(middle, last);
+	    if (list.get(middle) < list.get(first)) {
+		list.swap(first, middle);
+	    }
+	}
+	list.swap(first, middle);
+
+	int  pivotValue = list.get(first);
+	long lower      = first;
+	long upper      = last + 1;
+
+	while (true) {
+	    do {
+		++lower;
+	    } while ((lower < last) && (list.get(lower) < pivotValue));
+
+	    do {
+		--upper;
+	    } while (list.get(upper) > pivotValue);
+
+	    if (lower >= upper) {
+		break;
+	    }
+
+	    list.swap(lower, upper);
+	}
+
+	/* move pivot value into correct place */
+	list.swap(first, upper);
+
+	return upper;
+    }
+
+    /**
+     * Partitions around the median of the first, middle and last elements
+     * the same way as QuickSort.PivotListMedian.
+     *
+     * @return the final location of the pivot
+     */
+    private static long PivotList(
+            OffHeapLongArray list, long first, long last) {
+	long middle = (first + last) >>> 1;
+
+	if (list.get(middle) < list.get(first)) {
+	    list.swap(first, middle);
+	}
+	if (list.get(last) < list.get(middle)) {
+	    list.swap(middle, last);
+	    if (list.get(middle) < list.get(first)) {
+		list.swap(first, middle);
+	    }
+	}
+	list.swap(first, middle);
+
+	long pivotValue = list.get(first);
+	long lower      = first;
+	long upper      = last + 1;
+
+	while (true) {
+	    do {
+		++lower;
+	    } while ((lower < last) && (list.get(lower) < pivotValue));
+
+	    do {
+		--upper;
+	    } while (list.get(upper) > pivotValue);
+
+	    if (lower >= upper) {
+		break;
+	    }
+
+	    list.swap(lower, upper);
+	}
+
+	/* move pivot value into correct place */
+	list.swap(first, upper);
+
+	return upper;
+    }
+
+    /**
+     * Sorts list[first..last] the same way HeapSort does.
+     */
+    private static void heapSort(OffHeapIntArray list, long first, long last) {
+	long n = last - first + 1;
+
+	for (long i = n / 2 - 1; i >= 0; --i) {
+	    fixHeap(list, first, i, list.get(first + i), n);
+	}
+
+	for (long i = n - 1; i >= 1; --i) {
+	    int max = list.get(first);
+	    fixHeap(list, first, 0, list.get(first + i), i);
+	    list.set(first + i, max);
+	}
+    }
+
+    /**
+     * Sorts list[first..last] the same way HeapSort does.
+     */
+    private static void heapSort(OffHeapLongArray list, long first, long last) {
+	long n = last - first + 1;
+
+	for (long i = n / 2 - 1; i >= 0; --i) {
+	    fixHeap(list, first, i, list.get(first + i), n);
+	}
+
+	for (long i = n - 1; i >= 1; --i) {
+	    long max = list.get(first);
+	    fixHeap(list, first, 0, list.get(first + i), i);
+	    list.set(first + i, max);
+	}
+    }
+
+    /**
+     * Moves the key down from location root of the heap of the given size,
+     * counted from first, until its children are not larger.
+     */
+    private static void fixHeap(
+            OffHeapIntArray list, long first, long root, int key, long size) {
+	while (2 * root + 1 < size) {
+	    long child = 2 * root + 1;
+
+	    if ((child + 1 < size)
+		&& (list.get(first + child + 1) > list.get(first + child))) {
+		++child;
+	    }
+	    if (list.get(first + child) <= key) {
+		break;
+	    }
+
+	    list.set(first + root, list.get(first + child));
+	    root = child;
+	}
+
+	list.set(first + root, key);
+    }
+
+    /**
+     * Moves the key down from location root of the heap of the given size,
+     * counted from first, until its children are not larger.
+     */
+    private static void fixHeap(
+            OffHeapLongArray list, long first, long root, long key, long size) {
+	while (2 * root + 1 < size) {
+	    long child = 2 * root + 1;
+
+	    if ((child + 1 < size)
+		&& (list.get(first + child + 1) > list.get(first + child))) {
+		++child;
+	    }
+	    if (list.get(first + child) <= key) {
+		break;
+	    }
+
+	    list.set(first + root, list.get(first + child));
+	    root = child;
+	}
+
+	list.set(first + root, key);
+    }
+
+    public static void main(String[] args) {
+	/** the maximum size of an array */
+	long MAX_LEN = 50000000L;
+
+	java.util.Random random = new java.util.Random();
+	OffHeapIntArray list = new OffHeapIntArray(MAX_LEN);
+	for (long i = 0; i < list.length(); i++) {
+	    list.set(i, random.nextInt());
+	}
+
+	long startTime = System.currentTimeMillis();
+	sort(list, 0, list.length() - 1);
+	long endTime = System.currentTimeMillis();
+	float seconds = (endTime - startTime) / 1000F;
+
+	for (long i = 1; i < list.length(); i++) {
+	    if (list.get(i - 1) > list.get(i)) {
+		System.out.println("not sorted at " + i);
+		break;
+	    }
+	}
+	list.close();
+
+	System.out.println(Float.toString(seconds) + " seconds.");
+    }
+}
@@ -0,0 +1,299 @@
+/**
+ * Copyright (C) 2011 by Andrey Pudov
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The parallel merge sort follows the same plan as MergeSort: it breaks the
+ * list in halves on the way down and merges the sorted halves on the way back
+ * up. The two halves of a large part of the list do not depend on each other,
+ * so they are sorted as separate fork/join tasks that can run on different
+ * processors at the same time.
+ *
+ * MergeLists allocates a result list for every merge. Here one auxiliary list
+ * the size of the part being sorted is allocated once, and the merges
+ * alternate between the list and the auxiliary list: the halves are sorted
+ * into one of them and merged into the other, so no merge has to copy its
+ * result back. The largest merges, near the top of the recursion, would
+ * otherwise run on a single processor, so they are split as well: the middle
+ * element of the longer “list” is located in the other one with a binary
+ * search, which divides the merge into two smaller independent merges.
+ *
+ * @version 0.00 18 Oct 2026
+ * @author  Andrey Pudov
+ */
+public class ParallelMergeSort {
+
+    /** the parts of the list smaller than this are sorted by a single task */
+    private static final int SORT_THRESHOLD = 8192;
+
+    /** the merges smaller than this are done by a single task */
+    private static final int MERGE_THRESHOLD = 8192;
+
+    /** the parts of the list up to this size are sorted by SortingNetwork */
+    private static final int NETWORK_THRESHOLD = 32;
+
+    /**
+     * @param list  the elements to be put into order
+     * @param first the index of the first element in the part of list to sort
+     * @param last  the index of the last element in the part of list to sort
+     */
+    public static void sort(int[] list, int first, int last) {
+	if (first < last) {
+	    sort(list, first, last, new int[last - first + 1]);
+	}
+    }
+
+    /**
+     * Sorts the part of the list with the given auxiliary list, so that
+     * repeated sorts of the same size do not allocate anything.
+     *
+     * @param list  the elements to be put into order
+     * @param first the index of the first element in the part of list to sort
+     * @param last  the index of the last element in the part of list to sort
+     * @param aux   the auxiliary list, at least last - first + 1 elements long
+     */
+    public static void sort(int[] list, int first, int last, int[] aux) {
+	if (first >= last) {
+	    return;
+	}
+
+	int size = last - first + 1;
+	if (aux.length < size) {
+	    throw new IllegalArgumentException(
+		"auxiliary list is shorter than " + size);
+	}
+
+	/* both lists start with the same elements, see SortTask */
+	System.arraycopy(list, first, aux, 0, size);
+
+	SortTask task = new SortTask(aux, 0, list, first, 0, size - 1);
+	if (size <= SORT_THRESHOLD) {
+	    task.compute();
+	} else {
+	    ForkJoinPool.commonPool().invoke(task);
+	}
+    }
+
+    /**
+     * Sorts the elements at positions lo..hi of src into the same positions
+     * of dst. The position p is the index (base + p) of its list.
+     *
+     * On entry both lists hold the same elements at these positions, so the
+     * halves can be sorted from dst into src and then merged back into dst.
+     * The invariant holds for the halves too, because neither of them has
+     * been touched yet when it is sorted.
+     */
+    private static final class SortTask extends RecursiveAction {
+	private static final long serialVersionUID = 1L;
+
+	private final int[] src;
+	private final int   srcBase;
+	private final int[] dst;
+	private final int   dstBase;
+	private final int   lo;
+	private final int   hi;
+
+	SortTask(int[] src, int srcBase, int[] dst, int dstBase,
+		 int lo, int hi) {
+	    this.src     = src;
+	    this.srcBase = srcBase;
+	    this.dst     = dst;
+	    this.dstBase = dstBase;
+	    this.lo      = lo;
+	    this.hi      = hi;
+	}
+
+	@Override
+	protected void compute() {
+	    int size = hi - lo + 1;
+
+	    if (size <= NETWORK_THRESHOLD) {
+		SortingNetwork.sort(dst, dstBase + lo, dstBase + hi);
+		return;
+	    }
+
+	    int middle = (lo + hi) >>> 1;
+	    SortTask left  =
+		new SortTask(dst, dstBase, src, srcBase, lo, middle);
+	    SortTask right =
+		new SortTask(dst, dstBase, src, srcBase, middle + 1, hi);
+
+	    if (size <= SORT_THRESHOLD) {
+		left.compute();
+		right.compute();
+		merge(src, srcBase + lo, srcBase + middle + 1,
+		      srcBase + middle + 1, srcBase + hi + 1,
+		      dst, dstBase + lo);
+	    } else {
+		invokeAll(left, right);
+		new MergeTask(src, srcBase + lo, srcBase + middle + 1,
+			      srcBase + middle + 1, srcBase + hi + 1,
+			      dst, dstBase + lo).compute();
+	    }
+	}
+    }
+
+    /**
+     * Merges src[start1..end1) and src[start2..end2) into dst starting from
+     * index to. A large merge is split at the middle element of the longer
+     * “list” into two merges that run in parallel.
+     */
+    private static final class MergeTask extends RecursiveAction {
+	private static final long serialVersionUID = 1L;
+
+	private final int[] src;
+	private final int   start1;
+	private final int   end1;
+	private final int   start2;
+	private final int   end2;
+	private final int[] dst;
+	private final int   to;
+
+	MergeTask(int[] src, int start1, int end1, int start2, int end2,
+		  int[] dst, int to) {
+	    this.src    = src;
+	    this.start1 = start1;
+	    this.end1   = end1;
+	    this.start2 = start2;
+	    this.end2   = end2;
+	    this.dst    = dst;
+	    this.to     = to;
+	}
+
+	@Override
+	protected void compute() {
+	    int length1 = end1 - start1;
+	    int length2 = end2 - start2;
+
+	    if (length1 + length2 <= MERGE_THRESHOLD) {
+		merge(src, start1, end1, start2, end2, dst, to);
+		return;
+	    }
+
+	    int split1;
+	    int split2;
+
+	    /*
+	     * elements equal to the splitter stay on the side that keeps
+	     * the elements of A before those of B, so the merge is stable
+	     */
+	    if (length1 >= length2) {
+		split1 = (start1 + end1) >>> 1;
+		split2 = lowerBound(src, start2, end2, src[split1]);
+	    } else {
+		split2 = (start2 + end2) >>> 1;
+		split1 = upperBound(src, start1, end1, src[split2]);
+	    }
+
+	    int middle = to + (split1 - start1) + (split2 - start2);
+
+	    invokeAll(
+		new MergeTask(src, start1, split1, start2, split2, dst, to),
+		new MergeTask(src, split1, end1, split2, end2, dst, middle));
+	}
+    }
+
+    /**
+     * Merges the sorted src[start1..end1) and src[start2..end2) into dst
+     * starting from index to.
+     */
+    private static void merge(int[] src, int start1, int end1,
+			      int start2, int end2, int[] dst, int to) {
+	while ((start1 < end1) && (start2 < end2)) {
+	    if (src[start1] <= src[start2]) {
+		dst[to++] = src[start1++];
+	    } else {
+		dst[to++] = src[start2++];
+	    }
+	}
+
+	/* move the part of the list that is left over */
+	if (start1 < end1) {
+	    System.arraycopy(src, start1, dst, to, end1 - start1);
+	} else {
+	    System.arraycopy(src, start2, dst, to, end2 - start2);
+	}
+    }
+
+    /**
+     * @return the index of the first element of list[start..end) that is not
+     *         less than value
+     */
+    private static int lowerBound(int[] list, int start, int end, int value) {
+	while (start < end) {
+	    int middle = (start + end) >>> 1;
+
+	    if (list[middle] < value) {
+		start = middle + 1;
+	    } else {
+		end = middle;
+	    }
+	}
+
+	return start;
+    }
+
+    /**
+     * @return the index of the first element of list[start..end) that is
+     *         greater than value
+     */
+    private static int upperBound(int[] list, int start, int end, int value) {
+	while (start < end) {
+	    int middle = (start + end) >>> 1;
+
+	    if (list[middle] <= value) {
+		start = middle + 1;
+	    } else {
+		end = middle;
+	    }
+	}
+
+	return start;
+    }
+
+    public static void main(String[] args) {
+	/** the maximum size of an array */
+	int MAX_LEN = 20000000;
+
+	java.util.Random random = new java.util.Random();
+	int[] list = new int[MAX_LEN];
+	for (int i = 0; i < list.length; i++) {
+	    list[i] = random.nextInt();
+	}
+
+	long startTime = System.currentTimeMillis();
+	sort(list, 0, list.length - 1);
+	long endTime = System.currentTimeMillis();
+	float seconds = (endTime - startTime) / 1000F;
+
+	for (int i = 1; i < list.length; i++) {
+	    if (list[i - 1] > list[i]) {
+		System.out.println("not sorted at " + i);
+		break;
+	    }
+	}
+
+	System.out.println(Float.toString(seconds) + " seconds.");
+    }
+}
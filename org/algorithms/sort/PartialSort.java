@@ -0,0 +1,190 @@
+/**
+ * Copyright (C) 2011 by Andrey Pudov
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.util.PrimitiveIterator;
+import java.util.stream.IntStream;
+
+/**
+ * A partial sort puts only the K smallest elements of a list into order, as
+ * for the first page of a sorted result. Sorting the whole list costs
+ * O(N lg N), and finding the K elements one at a time, as FindKthLargest
+ * does, costs O(KN). Here QuickSort.IntroSelect moves the K smallest elements
+ * to the front of the list in O(N), and only they are sorted, in O(K lg K).
+ *
+ * When the elements cannot all be kept, because they come from a stream or
+ * an iterator, the K smallest seen so far are kept in a heap with the largest
+ * of them on top. A new element that is smaller than the top replaces it and
+ * is moved down the heap, anything else is dropped, so the whole stream is
+ * looked at in O(N lg K) time and O(min(K, N)) space: the heap starts small
+ * and doubles as the elements arrive, up to K, so a large K over a short
+ * stream does not cost a list of K elements.
+ *
+ * @version 0.00 18 Oct 2026
+ * @author  Andrey Pudov
+ */
+public class PartialSort {
+
+    /** the number of elements the heap of smallest starts with */
+    private static final int INITIAL_HEAP = 16;
+
+    /**
+     * Puts the k smallest elements of the list into order in its first k
+     * locations; the order of the other elements is unspecified.
+     *
+     * @param list the elements to work with
+     * @param k    the number of elements to put into order
+     */
+    public static void partialSort(int[] list, int k) {
+	int n = list.length;
+
+	if (k <= 0) {
+	    return;
+	}
+
+	if (k < n) {
+	    QuickSort.IntroSelect(list, 0, n - 1, k - 1);
+	    QuickSort.IntroSort(list, 0, k - 2);
+	} else {
+	    QuickSort.IntroSort(list, 0, n - 1);
+	}
+    }
+
+    /**
+     * @param stream the elements to look through
+     * @param k      the number of elements to keep
+     * @return       the k smallest elements of the stream in order, or all
+     *               of them if there are fewer
+     */
+    public static int[] smallest(IntStream stream, int k) {
+	return smallest(stream.iterator(), k);
+    }
+
+    /**
+     * @param iterator the elements to look through
+     * @param k        the number of elements to keep
+     * @return         the k smallest elements of the iterator in order, or
+     *                 all of them if there are fewer
+     */
+    public static int[] smallest(PrimitiveIterator.OfInt iterator, int k) {
+	if (k < 0) {
+	    throw new IllegalArgumentException("negative k: " + k);
+	}
+
+	int[] heap = new int[Math.min(k, INITIAL_HEAP)];
+	int   size = 0;
+
+	while (iterator.hasNext()) {
+	    int newElement = iterator.nextInt();
+
+	    if (size < k) {
+		if (size == heap.length) {
+		    heap = java.util.Arrays.copyOf(
+			heap, (int) Math.min(k, 2L * heap.length));
+		}
+
+		/* move the new element up to its place in the heap */
+		int location = size++;
+		while (location > 0) {
+		    int parent = (location - 1) / 2;
+
+		    if (heap[parent] >= newElement) {
+			break;
+		    }
+		    heap[location] = heap[parent];
+		    location = parent;
+		}
+		heap[location] = newElement;
+	    } else if ((k > 0) && (newElement < heap[0])) {
+		FixHeap(heap, newElement, k);
+	    }
+	}
+
+	int[] result = java.util.Arrays.copyOf(heap, size);
+	QuickSort.IntroSort(result, 0, size - 1);
+
+	return result;
+    }
+
+    /**
+     * Puts the element into the root of the heap of the given size and moves
+     * it down until its children are not larger.
+     */
+    private static void FixHeap(int[] heap, int element, int size) {
+	int root = 0;
+
+	while (2 * root + 1 < size) {
+	    int child = 2 * root + 1;
+
+	    if ((child + 1 < size) && (heap[child + 1] > heap[child])) {
+		++child;
+	    }
+	    if (heap[child] <= element) {
+		break;
+	    }
+
+	    heap[root] = heap[child];
+	    root = child;
+	}
+
+	heap[root] = element;
+    }
+
+    public static void main(String[] args) {
+	/** the maximum size of an array */
+	int MAX_LEN = 10000000;
+
+	/** the number of elements wanted */
+	int K = 100;
+
+	java.util.Random random = new java.util.Random();
+	int[] list = new int[MAX_LEN];
+	for (int i = 0; i < list.length; i++) {
+	    list[i] = random.nextInt();
+	}
+	int[] copy = list.clone();
+
+	long startTime = System.currentTimeMillis();
+	partialSort(list, K);
+	long endTime = System.currentTimeMillis();
+	float seconds = (endTime - startTime) / 1000F;
+	System.out.println(Float.toString(seconds) + " seconds.");
+
+	startTime = System.currentTimeMillis();
+	int[] first = smallest(IntStream.of(copy), K);
+	endTime = System.currentTimeMillis();
+	seconds = (endTime - startTime) / 1000F;
+	System.out.println(Float.toString(seconds) + " seconds (stream).");
+
+	startTime = System.currentTimeMillis();
+	QuickSort.IntroSort(copy, 0, copy.length - 1);
+	endTime = System.currentTimeMillis();
+	seconds = (endTime - startTime) / 1000F;
+	System.out.println(Float.toString(seconds) + " seconds (IntroSort).");
+
+	for (int i = 0; i < K; i++) {
+	    if ((list[i] != copy[i]) || (first[i] != copy[i])) {
+		System.out.println("wrong at " + i);
+		break;
+	    }
+	}
+    }
+}
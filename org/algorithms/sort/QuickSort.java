@@ -34,7 +34,7 @@
  * @version 0.00 27 Feb 2011
  * @author  Andrey Pudov  
  */
-class QuickSort {
+public class QuickSort implements Sorter {
     
     /**
      * @param list  the elements to be put into order
@@ -110,6 +110,457 @@ class QuickSort {
 	return upper;
     }
 
+    /** the partitions up to this size are finished by SortingNetwork */
+    private static final int NETWORK_THRESHOLD = 32;
+
+    /** the partitions larger than this take the pivot from a ninther */
+    private static final int NINTHER_THRESHOLD = 128;
+
+    /** the number of elements PivotListBlock compares at each end at once */
+    private static final int BLOCK = 128;
+
+    /** the partitions larger than this are split by PivotListBlock */
+    private static final int BLOCK_THRESHOLD = 4 * BLOCK;
+
+    /**
+     * Introsort is the Quicksort used in production libraries. It takes the
+     * pivot from the median of the first, middle and last elements (the
+     * median of three such medians, a ninther, for large partitions), so that
+     * sorted and reversed lists split evenly. Small partitions are left to a
+     * SortingNetwork, and if the recursion gets deeper than 2 lg N, which only
+     * happens on adversarial input, the partition is finished by HeapSort.
+     * The worst case is therefore O(N lg N). Large partitions are split by
+     * PivotListBlock, which does not branch on the comparisons with the
+     * pivot. The recursion only goes into the smaller part of each partition,
+     * so the stack never grows beyond lg N, and no sentinel is needed after
+     * the part of the list being sorted.
+     *
+     * @param list  the elements to be put into order
+     * @param first the index of the first element in the part of list to sort
+     * @param last  the index of the last element in the part of list to sort
+     */
+    public static void IntroSort(int[] list, int first, int last) {
+	int n = last - first + 1;
+
+	if (n > 1) {
+	    IntroSort(list, first, last,
+		      2 * (31 - Integer.numberOfLeadingZeros(n)),
+		      new int[2 * BLOCK]);
+	}
+    }
+
+    /**
+     * @param list       the elements to be put into order
+     * @param first      the index of the first element in the part to sort
+     * @param last       the index of the last element in the part to sort
+     * @param depthLimit the number of partitions left before HeapSort
+     * @param offsets    the buffer of PivotListBlock
+     */
+    private static void IntroSort(int[] list, int first, int last,
+				  int depthLimit, int[] offsets) {
+	int pivot = 0;
+
+	while (last - first + 1 > NETWORK_THRESHOLD) {
+	    if (depthLimit == 0) {
+		HeapSort.HeapSort(list, first, last);
+		return;
+	    }
+	    --depthLimit;
+
+	    if (last - first + 1 > BLOCK_THRESHOLD) {
+		pivot = PivotListBlock(list, first, last, offsets);
+	    } else {
+		pivot = PivotListMedian(list, first, last);
+	    }
+
+	    /* recurse into the smaller part and loop over the larger one */
+	    if (pivot - first < last - pivot) {
+		IntroSort(list, first, pivot - 1, depthLimit, offsets);
+		first = pivot + 1;
+	    } else {
+		IntroSort(list, pivot + 1, last, depthLimit, offsets);
+		last = pivot - 1;
+	    }
+	}
+
+	SortingNetwork.sort(list, first, last);
+    }
+
+    /**
+     * Introselect partitions the list the same way IntroSort does, but only
+     * goes on with the part that holds location k, so it does O(N) work on
+     * average instead of O(N lg N). When it is done, list[k] holds the
+     * element that would be there if the list were sorted, the elements
+     * before it are not greater and the elements after it are not smaller.
+     * Too deep a recursion is finished by HeapSort, as in IntroSort.
+     *
+     * @param list  the elements to work with
+     * @param first the index of the first element in the part of list to use
+     * @param last  the index of the last element in the part of list to use
+     * @param k     the location to select, between first and last
+     */
+    public static void IntroSelect(int[] list, int first, int last, int k) {
+	int   depthLimit = 2 * (31 - Integer.numberOfLeadingZeros(
+				     Math.max(last - first + 1, 1)));
+	int[] offsets    = new int[2 * BLOCK];
+	int   pivot      = 0;
+
+	while (last - first + 1 > NETWORK_THRESHOLD) {
+	    if (depthLimit == 0) {
+		HeapSort.HeapSort(list, first, last);
+		return;
+	    }
+	    --depthLimit;
+
+	    if (last - first + 1 > BLOCK_THRESHOLD) {
+		pivot = PivotListBlock(list, first, last, offsets);
+	    } else {
+		pivot = PivotListMedian(list, first, last);
+	    }
+
+	    if (pivot == k) {
+		return;
+	    } else if (k < pivot) {
+		last = pivot - 1;
+	    } else {
+		first = pivot + 1;
+	    }
+	}
+
+	SortingNetwork.sort(list, first, last);
+    }
+
+    /**
+     * Quicksort with a three-way partition, for lists with few distinct keys.
+     * PivotList puts the keys equal to the pivot into one of the parts, so a
+     * list of a single repeated key is partitioned N times. Here every
+     * partition moves all of the keys equal to the pivot into the middle,
+     * between the smaller and the larger ones, and they are never looked at
+     * again: a list of K distinct keys is sorted in O(N lg K). The pivot, the
+     * depth limit and the small partitions are handled as in IntroSort.
+     *
+     * @param list  the elements to be put into order
+     * @param first the index of the first element in the part of list to sort
+     * @param last  the index of the last element in the part of list to sort
+     */
+    public static void QuickSort3(int[] list, int first, int last) {
+	QuickSort3(list, first, last, null);
+    }
+
+    /**
+     * Sorts in the same way and also counts the keys. Every run of equal keys
+     * in the sorted list is found by a partition, or by the scan of a small
+     * part after its SortingNetwork, so its length costs nothing more to
+     * record: runs[i] is set to the length of the run that starts at location
+     * i, and the other locations of runs are left alone. The runs are walked
+     * by
+     *
+     *   for (int i = first; i <= last; i += runs[i])
+     *
+     * @param list  the elements to be put into order
+     * @param first the index of the first element in the part of list to sort
+     * @param last  the index of the last element in the part of list to sort
+     * @param runs  the run lengths, at least last + 1 long, or null
+     * @return      the number of distinct keys
+     */
+    public static int QuickSort3(int[] list, int first, int last, int[] runs) {
+	int n = last - first + 1;
+
+	if (n < 1) {
+	    return 0;
+	}
+
+	return QuickSort3(list, first, last,
+			  2 * (31 - Integer.numberOfLeadingZeros(n)),
+			  runs, new int[2]);
+    }
+
+    /**
+     * @param list       the elements to be put into order
+     * @param first      the index of the first element in the part to sort
+     * @param last       the index of the last element in the part to sort
+     * @param depthLimit the number of partitions left before HeapSort
+     * @param runs       the run lengths, or null
+     * @param bounds     the bounds of the middle part of PivotList3
+     * @return           the number of distinct keys in the part
+     */
+    private static int QuickSort3(int[] list, int first, int last,
+				  int depthLimit, int[] runs, int[] bounds) {
+	int distinct = 0;
+
+	while (last - first + 1 > NETWORK_THRESHOLD) {
+	    if (depthLimit == 0) {
+		HeapSort.HeapSort(list, first, last);
+		return distinct + CountRuns(list, first, last, runs);
+	    }
+	    --depthLimit;
+
+	    PivotList3(list, first, last, bounds);
+	    int lower = bounds[0];
+	    int upper = bounds[1];
+
+	    if (runs != null) {
+		runs[lower] = upper - lower + 1;
+	    }
+	    ++distinct;
+
+	    /* recurse into the smaller part and loop over the larger one */
+	    if (lower - first < last - upper) {
+		distinct += QuickSort3(list, first, lower - 1,
+				       depthLimit, runs, bounds);
+		first = upper + 1;
+	    } else {
+		distinct += QuickSort3(list, upper + 1, last,
+				       depthLimit, runs, bounds);
+		last = lower - 1;
+	    }
+	}
+
+	SortingNetwork.sort(list, first, last);
+
+	return distinct + CountRuns(list, first, last, runs);
+    }
+
+    /**
+     * Records the runs of equal keys of a sorted part of the list.
+     *
+     * @return the number of runs
+     */
+    private static int CountRuns(int[] list, int first, int last, int[] runs) {
+	int distinct = 0;
+
+	for (int start = first, i = first + 1; start <= last; ++i) {
+	    if ((i > last) || (list[i] != list[start])) {
+		if (runs != null) {
+		    runs[start] = i - start;
+		}
+		++distinct;
+		start = i;
+	    }
+	}
+
+	return distinct;
+    }
+
+    /**
+     * Partitions around the median of three (or of a ninther) in the same way
+     * as PivotList2, but the scan from the left stops at the last element, so
+     * no sentinel is needed. Both scans stop on elements equal to the pivot,
+     * which splits lists with many equal keys evenly.
+     *
+     * @param list  the elements to work with
+     * @param first the index of the first element
+     * @param last  the index of the last element
+     */
+    private static int PivotListMedian(int[] list, int first, int last) {
+	MedianToFirst(list, first, last);
+
+	return PivotListRest(list, first, last, first + 1, last);
+    }
+
+    /**
+     * Partitions in the same way as PivotListMedian, but without a branch
+     * per element, after Edelkamp and Weiss' BlockQuicksort. On random keys
+     * every comparison of PivotListMedian is a coin toss for the branch
+     * predictor, so about half of them cost a pipeline flush. Here a block of
+     * BLOCK elements at each end is first compared to the pivot, and the
+     * offsets of the elements that are on the wrong side are stored by adding
+     * the result of the comparison to the count of stored offsets; the stored
+     * elements are then swapped pairwise in a loop whose length is known in
+     * advance. The blocks that are fully used are replaced by the next ones
+     * and the last 2 BLOCK or fewer elements are left to PivotListRest.
+     *
+     * @param list    the elements to work with
+     * @param first   the index of the first element
+     * @param last    the index of the last element
+     * @param offsets the buffer for the offsets, at least 2 BLOCK long
+     */
+    private static int PivotListBlock(
+            int[] list, int first, int last, int[] offsets) {
+	MedianToFirst(list, first, last);
+
+	int pivotValue = list[first];
+	int lower      = first + 1;     // the first element of the left block
+	int upper      = last;          // the last element of the right block
+	int numLeft    = 0;
+	int numRight   = 0;
+	int startLeft  = 0;
+	int startRight = BLOCK;
+
+	while (upper - lower + 1 > 2 * BLOCK) {
+	    if (numLeft == 0) {
+		startLeft = 0;
+		for (int i = 0; i < BLOCK; ++i) {
+		    offsets[numLeft] = i;
+		    numLeft += (list[lower + i] >= pivotValue) ? 1 : 0;
+		}
+	    }
+	    if (numRight == 0) {
+		startRight = BLOCK;
+		for (int i = 0; i < BLOCK; ++i) {
+		    offsets[BLOCK + numRight] = i;
+		    numRight += (list[upper - i] <= pivotValue) ? 1 : 0;
+		}
+	    }
+
+	    int num = Math.min(numLeft, numRight);
+	    for (int i = 0; i < num; ++i) {
+		swap(list, lower + offsets[startLeft + i],
+		     upper - offsets[startRight + i]);
+	    }
+
+	    numLeft    -= num;
+	    numRight   -= num;
+	    startLeft  += num;
+	    startRight += num;
+
+	    if (numLeft == 0) {
+		lower += BLOCK;
+	    }
+	    if (numRight == 0) {
+		upper -= BLOCK;
+	    }
+	}
+
+	return PivotListRest(list, first, last, lower, upper);
+    }
+
+    /**
+     * Finishes a partition around list[first] of which only the elements
+     * lower..upper are left: those before them are not greater than the
+     * pivot, and those after them are not smaller.
+     *
+     * @return the final location of the pivot
+     */
+    private static int PivotListRest(
+            int[] list, int first, int last, int lower, int upper) {
+	int pivotValue = list[first];
+
+	--lower;
+	++upper;
+
+	while (true) {
+	    do {
+		++lower;
+	    } while ((lower < last) && (list[lower] < pivotValue));
+
+	    do {
+		--upper;
+	    } while (list[upper] > pivotValue);
+
+	    if (lower >= upper) {
+		break;
+	    }
+
+	    swap(list, lower, upper);
+	}
+
+	/* move pivot value into correct place */
+	swap(list, first, upper);
+
+	return upper;
+    }
+
+    /**
+     * The three-way partition of Bentley and McIlroy. The scans stop on keys
+     * equal to the pivot as in PivotListMedian, but every such key is then
+     * swapped to the nearer end of the part, so that it is not compared
+     * again. At the end the keys at both ends are swapped into the middle.
+     * Unlike Dijkstra's partition, a list with distinct keys costs no more
+     * swaps than PivotListMedian.
+     *
+     * @param list   the elements to work with
+     * @param first  the index of the first element
+     * @param last   the index of the last element
+     * @param bounds receives the first and the last index of the keys equal
+     *               to the pivot
+     */
+    private static void PivotList3(
+            int[] list, int first, int last, int[] bounds) {
+	MedianToFirst(list, first, last);
+
+	int pivotValue = list[first];
+	int lower      = first;
+	int upper      = last + 1;
+	int equalLeft  = first;         // list[first..equalLeft] == pivot
+	int equalRight = last + 1;      // list[equalRight..last] == pivot
+
+	while (true) {
+	    do {
+		++lower;
+	    } while ((lower < last) && (list[lower] < pivotValue));
+
+	    do {
+		--upper;
+	    } while (list[upper] > pivotValue);
+
+	    if ((lower == upper) && (list[lower] == pivotValue)) {
+		swap(list, ++equalLeft, lower);
+	    }
+	    if (lower >= upper) {
+		break;
+	    }
+
+	    swap(list, lower, upper);
+	    if (list[lower] == pivotValue) {
+		swap(list, ++equalLeft, lower);
+	    }
+	    if (list[upper] == pivotValue) {
+		swap(list, --equalRight, upper);
+	    }
+	}
+
+	/* move the equal keys from both ends into the middle */
+	lower = upper + 1;
+	for (int i = first; i <= equalLeft; ++i) {
+	    swap(list, i, upper--);
+	}
+	for (int i = last; i >= equalRight; --i) {
+	    swap(list, i, lower++);
+	}
+
+	bounds[0] = upper + 1;
+	bounds[1] = lower - 1;
+    }
+
+    /**
+     * Moves the median of three (or of a ninther for large partitions) to the
+     * first location, to be the pivot.
+     */
+    private static void MedianToFirst(int[] list, int first, int last) {
+	int size   = last - first + 1;
+	int middle = (first + last) >>> 1;
+
+	if (size > NINTHER_THRESHOLD) {
+	    int eighth = size / 8;
+
+	    MedianOfThree(list, first, first + eighth, first + 2 * eighth);
+	    MedianOfThree(list, middle - eighth, middle, middle + eighth);
+	    MedianOfThree(list, last - 2 * eighth, last - eighth, last);
+	    MedianOfThree(list, first + eighth, middle, last - eighth);
+	} else {
+	    MedianOfThree(list, first, middle, last);
+	}
+
+	/* move the pivot value to the first location */
+	swap(list, first, middle);
+    }
+
+    /**
+     * Orders list[a], list[b] and list[c], leaving their median in list[b].
+     */
+    private static void MedianOfThree(int[] list, int a, int b, int c) {
+	if (list[b] < list[a]) {
+	    swap(list, a, b);
+	}
+	if (list[c] < list[b]) {
+	    swap(list, b, c);
+	    if (list[b] < list[a]) {
+		swap(list, a, b);
+	    }
+	}
+    }
+
     /**
      * interchange inside array
      *
@@ -126,6 +577,14 @@ class QuickSort {
 	a[j] = t;
     }
 
+    /**
+     * @param list the elements to be put into order
+     * @param n    the number of elements in the list
+     */
+    public void sort(int[] list, int n) {
+	IntroSort(list, 0, n - 1);
+    }
+
     public static void main(String[] args) {
 	int[] list = 
 	    {15, 4, 10, 8, 6, 9, 16, 1, 7, 3, 11, 14, 2, 5, 12, 13, 20000000};
@@ -143,5 +602,37 @@ class QuickSort {
 	System.out.print('\n');
 
 	System.out.println(Float.toString(seconds) + " seconds.");
+
+	/* compare the partitions on the same random lists */
+	int MAX_LEN = 10000000;
+	int ROUNDS  = 20;
+
+	java.util.Random random = new java.util.Random();
+	int[] source  = new int[MAX_LEN];
+	int[] offsets = new int[2 * BLOCK];
+	for (int i = 0; i < source.length; i++) {
+	    source[i] = random.nextInt();
+	}
+
+	for (int pass = 0; pass < 2; pass++) {       // the first one warms up
+	    long median = 0;
+	    long block  = 0;
+
+	    for (int round = 0; round < ROUNDS; round++) {
+		list = source.clone();
+		startTime = System.nanoTime();
+		PivotListMedian(list, 0, list.length - 1);
+		median += System.nanoTime() - startTime;
+
+		list = source.clone();
+		startTime = System.nanoTime();
+		PivotListBlock(list, 0, list.length - 1, offsets);
+		block += System.nanoTime() - startTime;
+	    }
+
+	    System.out.println("PivotListMedian: " + median / ROUNDS / 1000000
+			       + " ms, PivotListBlock: "
+			       + block / ROUNDS / 1000000 + " ms.");
+	}
     }
-}
\ No newline at end of file
+}
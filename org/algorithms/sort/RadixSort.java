@@ -0,0 +1,608 @@
+/**
+ * Copyright (C) 2011 by Andrey Pudov
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Radix sort does not compare the keys with each other at all. It looks at
+ * the keys one digit at a time, starting with the least significant digit,
+ * and distributes the list into one bucket for each value of that digit,
+ * keeping the elements that fall into the same bucket in the order they had.
+ * After the pass over the most significant digit the list is in order. With
+ * 8-bit digits an int key takes four passes and a long key eight, so the
+ * sort runs in O(N) time, which beats the O(N lg N) of the comparison sorts
+ * for large lists.
+ *
+ * The size of every bucket is counted before the distribution, so that each
+ * pass moves the elements exactly once into an auxiliary list of the same
+ * size. The counts of all the digits are made in a single pass over the list
+ * that is split among the processors. A digit that is the same for all of the
+ * keys would leave the list as it is, so its pass is skipped. The sign bit is
+ * flipped before the digits are taken, so that negative keys come first.
+ *
+ * @version 0.00 18 Oct 2026
+ * @author  Andrey Pudov
+ */
+public class RadixSort implements Sorter {
+
+    /** the number of values of a digit */
+    private static final int RADIX = 256;
+
+    /** the lists smaller than this are sorted by comparisons */
+    private static final int INSERTION_THRESHOLD = 64;
+
+    /** the lists smaller than this are counted by a single task */
+    private static final int HISTOGRAM_THRESHOLD = 1 << 16;
+
+    /**
+     * @param list  the elements to be put into order
+     * @param first the index of the first element in the part of list to sort
+     * @param last  the index of the last element in the part of list to sort
+     */
+    public static void sort(int[] list, int first, int last) {
+	if (last - first + 1 <= INSERTION_THRESHOLD) {
+	    InsertionSort.InsertionSort(list, first, last);
+	} else {
+	    sort(list, first, last, new int[last - first + 1]);
+	}
+    }
+
+    /**
+     * Sorts the part of the list with the given auxiliary list, so that
+     * repeated sorts of the same size do not allocate the list again.
+     *
+     * @param list   the elements to be put into order
+     * @param first  the index of the first element in the part of list to sort
+     * @param last   the index of the last element in the part of list to sort
+     * @param buffer the auxiliary list, at least last - first + 1 elements long
+     */
+    public static void sort(int[] list, int first, int last, int[] buffer) {
+	int n = last - first + 1;
+
+	if (n <= INSERTION_THRESHOLD) {
+	    InsertionSort.InsertionSort(list, first, last);
+	    return;
+	}
+	if (buffer.length < n) {
+	    throw new IllegalArgumentException(
+		"auxiliary list is shorter than " + n);
+	}
+
+	int[] count = ForkJoinPool.commonPool().invoke(
+	    new IntHistogram(list, first, last + 1, chunkSize(n)));
+
+	int[] src     = list;
+	int   srcBase = first;
+	int[] dst     = buffer;
+	int   dstBase = 0;
+	int   sign    = list[first] ^ Integer.MIN_VALUE;
+
+	for (int pass = 0; pass < Integer.BYTES; ++pass) {
+	    int shift  = pass * 8;
+	    int offset = pass * RADIX;
+
+	    /* every key has the same digit, nothing would move */
+	    if (count[offset + ((sign >>> shift) & 0xFF)] == n) {
+		continue;
+	    }
+
+	    /* turn the counts into the positions where the buckets start */
+	    int[] start = new int[RADIX];
+	    for (int d = 1; d < RADIX; ++d) {
+		start[d] = start[d - 1] + count[offset + d - 1];
+	    }
+
+	    for (int i = srcBase; i < srcBase + n; ++i) {
+		int key = src[i];
+		int d   = ((key ^ Integer.MIN_VALUE) >>> shift) & 0xFF;
+
+		dst[dstBase + start[d]++] = key;
+	    }
+
+	    int[] temp     = src;
+	    int   tempBase = srcBase;
+	    src     = dst;
+	    srcBase = dstBase;
+	    dst     = temp;
+	    dstBase = tempBase;
+	}
+
+	if (src != list) {
+	    System.arraycopy(src, srcBase, list, first, n);
+	}
+    }
+
+    /**
+     * @param list  the elements to be put into order
+     * @param first the index of the first element in the part of list to sort
+     * @param last  the index of the last element in the part of list to sort
+     */
+    public static void sort(long[] list, int first, int last) {
+	if (last - first + 1 <= INSERTION_THRESHOLD) {
+	    insertionSort(list, first, last);
+	} else {
+	    sort(list, first, last, new long[last - first + 1]);
+	}
+    }
+
+    /**
+     * Sorts the part of the list with the given auxiliary list, so that
+     * repeated sorts of the same size do not allocate the list again.
+     *
+     * @param list   the elements to be put into order
+     * @param first  the index of the first element in the part of list to sort
+     * @param last   the index of the last element in the part of list to sort
+     * @param buffer the auxiliary list, at least last - first + 1 elements long
+     */
+    public static void sort(long[] list, int first, int last, long[] buffer) {
+	int n = last - first + 1;
+
+	if (n <= INSERTION_THRESHOLD) {
+	    insertionSort(list, first, last);
+	    return;
+	}
+	if (buffer.length < n) {
+	    throw new IllegalArgumentException(
+		"auxiliary list is shorter than " + n);
+	}
+
+	int[] count = ForkJoinPool.commonPool().invoke(
+	    new LongHistogram(list, first, last + 1, chunkSize(n)));
+
+	long[] src     = list;
+	int    srcBase = first;
+	long[] dst     = buffer;
+	int    dstBase = 0;
+	long   sign    = list[first] ^ Long.MIN_VALUE;
+
+	for (int pass = 0; pass < Long.BYTES; ++pass) {
+	    int shift  = pass * 8;
+	    int offset = pass * RADIX;
+
+	    /* every key has the same digit, nothing would move */
+	    if (count[offset + (int) ((sign >>> shift) & 0xFF)] == n) {
+		continue;
+	    }
+
+	    /* turn the counts into the positions where the buckets start */
+	    int[] start = new int[RADIX];
+	    for (int d = 1; d < RADIX; ++d) {
+		start[d] = start[d - 1] + count[offset + d - 1];
+	    }
+
+	    for (int i = srcBase; i < srcBase + n; ++i) {
+		long key = src[i];
+		int  d   = (int) (((key ^ Long.MIN_VALUE) >>> shift) & 0xFF);
+
+		dst[dstBase + start[d]++] = key;
+	    }
+
+	    long[] temp     = src;
+	    int    tempBase = srcBase;
+	    src     = dst;
+	    srcBase = dstBase;
+	    dst     = temp;
+	    dstBase = tempBase;
+	}
+
+	if (src != list) {
+	    System.arraycopy(src, srcBase, list, first, n);
+	}
+    }
+
+    /**
+     * Sorts the keys and moves every value along with its key, so that the
+     * values end up in the order of their keys. The sort is stable, so a
+     * list of values that starts as 0, 1, 2, ... becomes the permutation
+     * that sorts the keys.
+     *
+     * @param keys   the keys to be put into order
+     * @param values the values to be moved along with their keys
+     * @param first  the index of the first element in the part to sort
+     * @param last   the index of the last element in the part to sort
+     */
+    public static void sort(int[] keys, int[] values, int first, int last) {
+	int n = last - first + 1;
+
+	if (n <= INSERTION_THRESHOLD) {
+	    insertionSort(keys, values, first, last);
+	} else {
+	    sort(keys, values, first, last, new int[n], new int[n]);
+	}
+    }
+
+    /**
+     * Sorts the keys and their values with the given auxiliary lists, so
+     * that repeated sorts of the same size do not allocate the lists again.
+     *
+     * @param keys      the keys to be put into order
+     * @param values    the values to be moved along with their keys
+     * @param first     the index of the first element in the part to sort
+     * @param last      the index of the last element in the part to sort
+     * @param dst       the auxiliary list of keys, at least last - first + 1
+     *                  elements long
+     * @param dstValues the auxiliary list of values, at least as long
+     */
+    public static void sort(int[] keys, int[] values, int first, int last,
+			    int[] dst, int[] dstValues) {
+	int n = last - first + 1;
+
+	if (n <= INSERTION_THRESHOLD) {
+	    insertionSort(keys, values, first, last);
+	    return;
+	}
+	if ((dst.length < n) || (dstValues.length < n)) {
+	    throw new IllegalArgumentException(
+		"auxiliary list is shorter than " + n);
+	}
+
+	int[] count = ForkJoinPool.commonPool().invoke(
+	    new IntHistogram(keys, first, last + 1, chunkSize(n)));
+
+	int[] src       = keys;
+	int[] srcValues = values;
+	int   srcBase   = first;
+	int   dstBase   = 0;
+	int   sign      = keys[first] ^ Integer.MIN_VALUE;
+
+	for (int pass = 0; pass < Integer.BYTES; ++pass) {
+	    int shift  = pass * 8;
+	    int offset = pass * RADIX;
+
+	    /* every key has the same digit, nothing would move */
+	    if (count[offset + ((sign >>> shift) & 0xFF)] == n) {
+		continue;
+	    }
+
+	    /* turn the counts into the positions where the buckets start */
+	    int[] start = new int[RADIX];
+	    for (int d = 1; d < RADIX; ++d) {
+		start[d] = start[d - 1] + count[offset + d - 1];
+	    }
+
+	    for (int i = srcBase; i < srcBase + n; ++i) {
+		int key = src[i];
+		int d   = ((key ^ Integer.MIN_VALUE) >>> shift) & 0xFF;
+		int to  = dstBase + start[d]++;
+
+		dst[to]       = key;
+		dstValues[to] = srcValues[i];
+	    }
+
+	    int[] temp       = src;
+	    int[] tempValues = srcValues;
+	    int   tempBase   = srcBase;
+	    src       = dst;
+	    srcValues = dstValues;
+	    srcBase   = dstBase;
+	    dst       = temp;
+	    dstValues = tempValues;
+	    dstBase   = tempBase;
+	}
+
+	if (src != keys) {
+	    System.arraycopy(src, srcBase, keys, first, n);
+	    System.arraycopy(srcValues, srcBase, values, first, n);
+	}
+    }
+
+    /**
+     * Sorts the keys and moves every value along with its key, so that the
+     * values end up in the order of their keys. The sort is stable.
+     *
+     * @param keys   the keys to be put into order
+     * @param values the values to be moved along with their keys
+     * @param first  the index of the first element in the part to sort
+     * @param last   the index of the last element in the part to sort
+     */
+    public static void sort(long[] keys, int[] values, int first, int last) {
+	int n = last - first + 1;
+
+	if (n <= INSERTION_THRESHOLD) {
+	    insertionSort(keys, values, first, last);
+	} else {
+	    sort(keys, values, first, last, new long[n], new int[n]);
+	}
+    }
+
+    /**
+     * Sorts the keys and their values with the given auxiliary lists, so
+     * that repeated sorts of the same size do not allocate the lists again.
+     *
+     * @param keys      the keys to be put into order
+     * @param values    the values to be moved along with their keys
+     * @param first     the index of the first element in the part to sort
+     * @param last      the index of the last element in the part to sort
+     * @param dst       the auxiliary list of keys, at least last - first + 1
+     *                  elements long
+     * @param dstValues the auxiliary list of values, at least as long
+     */
+    public static void sort(long[] keys, int[] values, int first, int last,
+			    long[] dst, int[] dstValues) {
+	int n = last - first + 1;
+
+	if (n <= INSERTION_THRESHOLD) {
+	    insertionSort(keys, values, first, last);
+	    return;
+	}
+	if ((dst.length < n) || (dstValues.length < n)) {
+	    throw new IllegalArgumentException(
+		"auxiliary list is shorter than " + n);
+	}
+
+	int[] count = ForkJoinPool.commonPool().invoke(
+	    new LongHistogram(keys, first, last + 1, chunkSize(n)));
+
+	long[] src       = keys;
+	int[]  srcValues = values;
+	int    srcBase   = first;
+	int    dstBase   = 0;
+	long   sign      = keys[first] ^ Long.MIN_VALUE;
+
+	for (int pass = 0; pass < Long.BYTES; ++pass) {
+	    int shift  = pass * 8;
+	    int offset = pass * RADIX;
+
+	    /* every key has the same digit, nothing would move */
+	    if (count[offset + (int) ((sign >>> shift) & 0xFF)] == n) {
+		continue;
+	    }
+
+	    /* turn the counts into the positions where the buckets start */
+	    int[] start = new int[RADIX];
+	    for (int d = 1; d < RADIX; ++d) {
+		start[d] = start[d - 1] + count[offset + d - 1];
+	    }
+
+	    for (int i = srcBase; i < srcBase + n; ++i) {
+		long key = src[i];
+		int  d   = (int) (((key ^ Long.MIN_VALUE) >>> shift) & 0xFF);
+		int  to  = dstBase + start[d]++;
+
+		dst[to]       = key;
+		dstValues[to] = srcValues[i];
+	    }
+
+	    long[] temp       = src;
+	    int[]  tempValues = srcValues;
+	    int    tempBase   = srcBase;
+	    src       = dst;
+	    srcValues = dstValues;
+	    srcBase   = dstBase;
+	    dst       = temp;
+	    dstValues = tempValues;
+	    dstBase   = tempBase;
+	}
+
+	if (src != keys) {
+	    System.arraycopy(src, srcBase, keys, first, n);
+	    System.arraycopy(srcValues, srcBase, values, first, n);
+	}
+    }
+
+    /**
+     * @return the number of elements counted by one task, so that every
+     *         processor gets a few tasks
+     */
+    private static int chunkSize(int n) {
+	int tasks = 4 * ForkJoinPool.commonPool().getParallelism();
+
+	return Math.max(HISTOGRAM_THRESHOLD, n / tasks);
+    }
+
+    /**
+     * Counts the values of every digit of list[from..to). The count of the
+     * value d of digit k is at index k * RADIX + d of the result.
+     */
+    private static final class IntHistogram extends RecursiveTask<int[]> {
+	private static final long serialVersionUID = 1L;
+
+	private final int[] list;
+	private final int   from;
+	private final int   to;
+	private final int   chunk;
+
+	IntHistogram(int[] list, int from, int to, int chunk) {
+	    this.list  = list;
+	    this.from  = from;
+	    this.to    = to;
+	    this.chunk = chunk;
+	}
+
+	@Override
+	protected int[] compute() {
+	    if (to - from <= chunk) {
+		int[] count = new int[Integer.BYTES * RADIX];
+
+		for (int i = from; i < to; ++i) {
+		    int key = list[i] ^ Integer.MIN_VALUE;
+
+		    ++count[key & 0xFF];
+		    ++count[RADIX + ((key >>> 8) & 0xFF)];
+		    ++count[2 * RADIX + ((key >>> 16) & 0xFF)];
+		    ++count[3 * RADIX + (key >>> 24)];
+		}
+
+		return count;
+	    }
+
+	    int middle = (from + to) >>> 1;
+	    IntHistogram right = new IntHistogram(list, middle, to, chunk);
+	    right.fork();
+
+	    int[] count = new IntHistogram(list, from, middle, chunk).compute();
+	    int[] other = right.join();
+	    for (int i = 0; i < count.length; ++i) {
+		count[i] += other[i];
+	    }
+
+	    return count;
+	}
+    }
+
+    /**
+     * Counts the values of every digit of list[from..to). The count of the
+     * value d of digit k is at index k * RADIX + d of the result.
+     */
+    private static final class LongHistogram extends RecursiveTask<int[]> {
+	private static final long serialVersionUID = 1L;
+
+	private final long[] list;
+	private final int    from;
+	private final int    to;
+	private final int    chunk;
+
+	LongHistogram(long[] list, int from, int to, int chunk) {
+	    this.list  = list;
+	    this.from  = from;
+	    this.to    = to;
+	    this.chunk = chunk;
+	}
+
+	@Override
+	protected int[] compute() {
+	    if (to - from <= chunk) {
+		int[] count = new int[Long.BYTES * RADIX];
+
+		for (int i = from; i < to; ++i) {
+		    long key = list[i] ^ Long.MIN_VALUE;
+
+		    for (int pass = 0; pass < Long.BYTES; ++pass) {
+			++count[pass * RADIX
+				+ (int) ((key >>> (pass * 8)) & 0xFF)];
+		    }
+		}
+
+		return count;
+	    }
+
+	    int middle = (from + to) >>> 1;
+	    LongHistogram right = new LongHistogram(list, middle, to, chunk);
+	    right.fork();
+
+	    int[] count =
+		new LongHistogram(list, from, middle, chunk).compute();
+	    int[] other = right.join();
+	    for (int i = 0; i < count.length; ++i) {
+		count[i] += other[i];
+	    }
+
+	    return count;
+	}
+    }
+
+    /**
+     * Sorts list[first..last] the same way InsertionSort does.
+     */
+    private static void insertionSort(long[] list, int first, int last) {
+	for (int i = first + 1; i <= last; ++i) {
+	    long newElement = list[i];
+	    int  location   = i - 1;
+
+	    while ((location >= first) && (list[location] > newElement)) {
+		/* move any larger elements out of the way */
+		list[location + 1] = list[location];
+		--location;
+	    }
+
+	    list[location + 1] = newElement;
+	}
+    }
+
+    /**
+     * Sorts keys[first..last] by insertion, moving the values along.
+     */
+    private static void insertionSort(
+            int[] keys, int[] values, int first, int last) {
+	for (int i = first + 1; i <= last; ++i) {
+	    int newKey   = keys[i];
+	    int newValue = values[i];
+	    int location = i - 1;
+
+	    while ((location >= first) && (keys[location] > newKey)) {
+		/* move any larger elements out of the way */
+		keys[location + 1]   = keys[location];
+		values[location + 1] = values[location];
+		--location;
+	    }
+
+	    keys[location + 1]   = newKey;
+	    values[location + 1] = newValue;
+	}
+    }
+
+    /**
+     * Sorts keys[first..last] by insertion, moving the values along.
+     */
+    private static void insertionSort(
+            long[] keys, int[] values, int first, int last) {
+	for (int i = first + 1; i <= last; ++i) {
+	    long newKey   = keys[i];
+	    int  newValue = values[i];
+	    int  location = i - 1;
+
+	    while ((location >= first) && (keys[location] > newKey)) {
+		/* move any larger elements out of the way */
+		keys[location + 1]   = keys[location];
+		values[location + 1] = values[location];
+		--location;
+	    }
+
+	    keys[location + 1]   = newKey;
+	    values[location + 1] = newValue;
+	}
+    }
+
+    /**
+     * @param list the elements to be put into order
+     * @param n    the number of elements in the list
+     */
+    public void sort(int[] list, int n) {
+	sort(list, 0, n - 1);
+    }
+
+    public static void main(String[] args) {
+	/** the maximum size of an array */
+	int MAX_LEN = 20000000;
+
+	java.util.Random random = new java.util.Random();
+	int[] list = new int[MAX_LEN];
+	for (int i = 0; i < list.length; i++) {
+	    list[i] = random.nextInt();
+	}
+
+	long startTime = System.currentTimeMillis();
+	sort(list, 0, list.length - 1);
+	long endTime = System.currentTimeMillis();
+	float seconds = (endTime - startTime) / 1000F;
+
+	for (int i = 1; i < list.length; i++) {
+	    if (list[i - 1] > list[i]) {
+		System.out.println("not sorted at " + i);
+		break;
+	    }
+	}
+
+	System.out.println(Float.toString(seconds) + " seconds.");
+    }
+}
@@ -0,0 +1,340 @@
+/**
+ * Copyright (C) 2011 by Andrey Pudov
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sample sort is Quicksort with many pivots at once. It picks K - 1 splitters
+ * from a random sample of the list, which divide the range of the keys into K
+ * buckets of about the same size, moves every element into its bucket, and
+ * then sorts the buckets independently of each other. Unlike a parallel merge
+ * sort, which ends with a merge of the whole list, there is nothing left to
+ * do once the buckets are sorted, so every step can be spread over all of the
+ * processors:
+ *
+ *   the list is cut into blocks, and for every block one task finds the
+ *   bucket of each element and counts the elements of each bucket;
+ *   the counts tell every block where its part of each bucket starts, so the
+ *   blocks move their elements into the auxiliary list at the same time;
+ *   each bucket is sorted by IntroSort and copied back as a task of its own.
+ *
+ * The splitters are kept as an implicit binary search tree, the children of
+ * node j being nodes 2j and 2j + 1, and an element descends the lg K levels of
+ * the tree by adding the result of a comparison to the node index, without a
+ * branch that the processor could mispredict. The sample is 16 times larger
+ * than the number of buckets, so that the buckets come out evenly sized.
+ *
+ * A key that makes up a large part of the list shows up in the sample many
+ * times and so becomes several equal splitters. Without more care all of its
+ * copies would land in one bucket, sorted by one task. When the splitters
+ * repeat, the duplicates are dropped, the tree gets one level less, and every
+ * bucket is followed by an equality bucket, as in IPS4o: an element that
+ * reaches bucket j is compared with splitter j once more and goes to the
+ * equality bucket if it is equal. The equality buckets are already sorted,
+ * so a heavy key costs no sort at all, and a list of equal keys is only
+ * moved.
+ *
+ * @version 0.00 18 Oct 2026
+ * @author  Andrey Pudov
+ */
+public class SampleSort {
+
+    /** lg K, the buckets fit in a byte */
+    private static final int LOG_BUCKETS = 8;
+
+    /** K, the number of buckets, counting the equality buckets */
+    private static final int BUCKETS = 1 << LOG_BUCKETS;
+
+    /** the number of sampled elements for each bucket */
+    private static final int OVERSAMPLING = 16;
+
+    /** the lists smaller than this are sorted by IntroSort alone */
+    private static final int SAMPLE_THRESHOLD = 1 << 16;
+
+    /**
+     * @param list  the elements to be put into order
+     * @param first the index of the first element in the part of list to sort
+     * @param last  the index of the last element in the part of list to sort
+     */
+    public static void sort(int[] list, int first, int last) {
+	if (last - first + 1 < SAMPLE_THRESHOLD) {
+	    QuickSort.IntroSort(list, first, last);
+	} else {
+	    sort(list, first, last, new int[last - first + 1]);
+	}
+    }
+
+    /**
+     * Sorts the part of the list with the given auxiliary list, so that
+     * repeated sorts of the same size do not allocate the list again.
+     *
+     * @param list   the elements to be put into order
+     * @param first  the index of the first element in the part of list to sort
+     * @param last   the index of the last element in the part of list to sort
+     * @param buffer the auxiliary list, at least last - first + 1 elements long
+     */
+    public static void sort(int[] list, int first, int last, int[] buffer) {
+	int n = last - first + 1;
+
+	if (n < SAMPLE_THRESHOLD) {
+	    QuickSort.IntroSort(list, first, last);
+	    return;
+	}
+	if (buffer.length < n) {
+	    throw new IllegalArgumentException(
+		"auxiliary list is shorter than " + n);
+	}
+
+	int[] sample    = sample(list, first, n);
+	int[] candidate = splitters(sample, BUCKETS);
+
+	/* repeated splitters mean heavy keys, which get equality buckets */
+	boolean repeated = false;
+	for (int s = 1; s < BUCKETS - 1; ++s) {
+	    repeated |= (candidate[s - 1] == candidate[s]);
+	}
+
+	boolean equal    = repeated;
+	int     leaves   = equal ? BUCKETS / 2 : BUCKETS;
+	int     levels   = Integer.numberOfTrailingZeros(leaves);
+	int     buckets  = equal ? 2 * leaves : leaves;
+	int[]   splitter = equal
+	    ? distinct(splitters(sample, leaves)) : candidate;
+
+	int[] tree = new int[leaves];
+	fillTree(tree, 1, splitter, 0, leaves - 2);
+
+	byte[] oracle = new byte[n];
+
+	int blocks = Math.min(
+	    4 * ForkJoinPool.commonPool().getParallelism(),
+	    n / SAMPLE_THRESHOLD + 1);
+	int[][] count = new int[blocks][BUCKETS];
+
+	/* find the bucket of every element and count the buckets per block */
+	ForkJoinPool.commonPool().invoke(new ForEach(0, blocks, block -> {
+	    int[] blockCount = count[block];
+	    int   begin      = first + blockEnd(n, blocks, block - 1);
+	    int   end        = first + blockEnd(n, blocks, block);
+
+	    for (int i = begin; i < end; ++i) {
+		int key = list[i];
+		int j   = 1;
+
+		for (int level = 0; level < levels; ++level) {
+		    /* branch-free: the comparison is added to the index */
+		    j = 2 * j + ((tree[j] < key) ? 1 : 0);
+		}
+		j -= leaves;
+
+		if (equal) {
+		    j = 2 * j + ((splitter[j] == key) ? 1 : 0);
+		}
+
+		oracle[i - first] = (byte) j;
+		++blockCount[j];
+	    }
+	}));
+
+	/*
+	 * turn the counts into the positions where the part of each bucket
+	 * that belongs to a block starts, bucket by bucket, block by block
+	 */
+	int[] bucketStart = new int[buckets + 1];
+	int position = 0;
+	for (int bucket = 0; bucket < buckets; ++bucket) {
+	    bucketStart[bucket] = position;
+
+	    for (int block = 0; block < blocks; ++block) {
+		int size = count[block][bucket];
+		count[block][bucket] = position;
+		position += size;
+	    }
+	}
+	bucketStart[buckets] = n;
+
+	/* move every element into its bucket of the auxiliary list */
+	ForkJoinPool.commonPool().invoke(new ForEach(0, blocks, block -> {
+	    int[] next  = count[block];
+	    int   begin = first + blockEnd(n, blocks, block - 1);
+	    int   end   = first + blockEnd(n, blocks, block);
+
+	    for (int i = begin; i < end; ++i) {
+		buffer[next[oracle[i - first] & 0xFF]++] = list[i];
+	    }
+	}));
+
+	/* sort the buckets, but not the equality ones, and copy them back */
+	ForkJoinPool.commonPool().invoke(new ForEach(0, buckets, bucket -> {
+	    int from = bucketStart[bucket];
+	    int to   = bucketStart[bucket + 1];
+
+	    if (!equal || (bucket % 2 == 0)) {
+		QuickSort.IntroSort(buffer, from, to - 1);
+	    }
+	    System.arraycopy(buffer, from, list, first + from, to - from);
+	}));
+    }
+
+    /**
+     * @return a sorted random sample of the list, OVERSAMPLING elements for
+     *         every bucket
+     */
+    private static int[] sample(int[] list, int first, int n) {
+	ThreadLocalRandom random = ThreadLocalRandom.current();
+	int[] sample = new int[BUCKETS * OVERSAMPLING];
+
+	for (int i = 0; i < sample.length; ++i) {
+	    sample[i] = list[first + random.nextInt(n)];
+	}
+	QuickSort.IntroSort(sample, 0, sample.length - 1);
+
+	return sample;
+    }
+
+    /**
+     * Takes every (sample.length / leaves)-th element of the sorted sample as
+     * a splitter.
+     *
+     * @return the leaves - 1 splitters in locations 0..leaves-2, and the last
+     *         of them repeated in location leaves - 1
+     */
+    private static int[] splitters(int[] sample, int leaves) {
+	int   step     = sample.length / leaves;
+	int[] splitter = new int[leaves];
+
+	for (int s = 0; s < leaves - 1; ++s) {
+	    splitter[s] = sample[(s + 1) * step];
+	}
+	splitter[leaves - 1] = splitter[leaves - 2];
+
+	return splitter;
+    }
+
+    /**
+     * Drops the repeated splitters and fills the locations freed at the end
+     * with the largest one, so that no element reaches the buckets between
+     * its copies.
+     *
+     * @return the splitters, changed in place
+     */
+    private static int[] distinct(int[] splitter) {
+	int d = 1;
+
+	for (int s = 1; s < splitter.length; ++s) {
+	    if (splitter[s] != splitter[d - 1]) {
+		splitter[d++] = splitter[s];
+	    }
+	}
+	java.util.Arrays.fill(splitter, d, splitter.length, splitter[d - 1]);
+
+	return splitter;
+    }
+
+    /**
+     * Puts the splitters lo..hi into the subtree rooted at node: the middle
+     * one into the node itself and the halves into the two children.
+     */
+    private static void fillTree(
+            int[] tree, int node, int[] splitter, int lo, int hi) {
+	if (lo > hi) {
+	    return;
+	}
+
+	int middle = (lo + hi) >>> 1;
+	tree[node] = splitter[middle];
+
+	fillTree(tree, 2 * node, splitter, lo, middle - 1);
+	fillTree(tree, 2 * node + 1, splitter, middle + 1, hi);
+    }
+
+    /**
+     * @return the position after the last element of the block, relative to
+     *         the first element of the list; 0 for block -1
+     */
+    private static int blockEnd(int n, int blocks, int block) {
+	return (int) ((long) n * (block + 1) / blocks);
+    }
+
+    /**
+     * The work done for one index of a ForEach.
+     */
+    private interface Body {
+	void run(int i);
+    }
+
+    /**
+     * Runs the body for every index in lo..hi-1 as separate fork/join tasks.
+     */
+    private static final class ForEach extends RecursiveAction {
+	private static final long serialVersionUID = 1L;
+
+	private final int  lo;
+	private final int  hi;
+	private final Body body;
+
+	ForEach(int lo, int hi, Body body) {
+	    this.lo   = lo;
+	    this.hi   = hi;
+	    this.body = body;
+	}
+
+	@Override
+	protected void compute() {
+	    if (hi - lo == 1) {
+		body.run(lo);
+		return;
+	    }
+
+	    int middle = (lo + hi) >>> 1;
+	    invokeAll(new ForEach(lo, middle, body),
+		      new ForEach(middle, hi, body));
+	}
+    }
+
+    public static void main(String[] args) {
+	/** the maximum size of an array */
+	int MAX_LEN = 20000000;
+
+	java.util.Random random = new java.util.Random();
+	int[] list = new int[MAX_LEN];
+	for (int i = 0; i < list.length; i++) {
+	    list[i] = random.nextInt();
+	}
+
+	long startTime = System.currentTimeMillis();
+	sort(list, 0, list.length - 1);
+	long endTime = System.currentTimeMillis();
+	float seconds = (endTime - startTime) / 1000F;
+
+	for (int i = 1; i < list.length; i++) {
+	    if (list[i - 1] > list[i]) {
+		System.out.println("not sorted at " + i);
+		break;
+	    }
+	}
+
+	System.out.println(Float.toString(seconds) + " seconds.");
+    }
+}
@@ -21,72 +21,206 @@
  */
 
 /**
- * The basic idea of insertion sort is that if you have a list that is sorted
- *  and need to add a new element, the most efficient process is to put that 
- * new element into the correct position instead of adding it anywhere and then
- * resorting the entire list. Insertion sort accomplishes its task by 
- * considering that the first element of any list is always a sorted list of 
- * size 1. We can create a two-element sorted list by correctly inserting the 
- * second element of the list into the one element list containing the first 
- * element. We can now insert the third element of the list into the two-element
- * sorted list. This process is repeated until all of the elements have been put
- * into the expanding sorted portion of the list.
+ * Shellsort is an extension of insertion sort. Insertion sort moves an
+ * element only one location at a time, so an element that is far from its
+ * final position needs many comparisons to get there. Shellsort first sorts
+ * the interleaved sublists of elements that are a large increment apart, so
+ * that such elements move far with each step, and then repeats this with
+ * smaller and smaller increments. The last pass, with an increment of 1, is a
+ * plain insertion sort, but by then the list is almost in order and there is
+ * little left for it to do.
  *
+ * The running time depends on the sequence of increments. Powers of two are a
+ * poor choice, because the elements in odd positions are not compared with
+ * those in even positions until the very last pass, which makes the worst
+ * case O(N^2). The sequences of Ciura, Tokuda and Sedgewick avoid this; their
+ * increments are computed once, when the class is loaded, and the sort needs
+ * no extra space at all.
  *
  * @version 0.00 27 Feb 2011
  * @author  Andrey Pudov  
  */
-class ShellSort {
+public class ShellSort implements Sorter {
+
+    /**
+     * The sequences of increments, each in ascending order starting with 1 and
+     * ending with the largest increment that fits in an int.
+     */
+    public enum GapSequence {
+	/**
+	 * 1, 4, 10, 23, 57, 132, 301, 701, 1750, found experimentally by
+	 * Ciura and extended by the ratio 2.25 between its last elements.
+	 */
+	CIURA(ciura()),
+
+	/**
+	 * ceil((9^k - 4^k) / (5 * 4^(k - 1))): 1, 4, 9, 20, 46, 103, 233, ...
+	 */
+	TOKUDA(tokuda()),
+
+	/**
+	 * 1 and 4^k + 3 * 2^(k - 1) + 1: 1, 8, 23, 77, 281, 1073, 4193, ...
+	 * which gives a worst case of O(N^(4/3)).
+	 */
+	SEDGEWICK(sedgewick());
+
+	private final int[] gaps;
+
+	GapSequence(int[] gaps) {
+	    this.gaps = gaps;
+	}
+    }
+
+    /** the sequence of increments used by sort(list, n) */
+    private final GapSequence gaps;
+
+    /**
+     * Creates a Shellsort that uses the increments of Ciura.
+     */
+    public ShellSort() {
+	this(GapSequence.CIURA);
+    }
+
+    /**
+     * @param gaps the sequence of increments to use
+     */
+    public ShellSort(GapSequence gaps) {
+	this.gaps = gaps;
+    }
 
     /**
      * @param list the elements to be put into order
      * @param n    the number of elements in the list
      */
     private static void ShellSort(int[] list, int n) {
-	int passes = (int) log2(n);
-	int increment = 0;
+	ShellSort(list, 0, n - 1, GapSequence.CIURA);
+    }
 
-	while (passes >= 0) {
-	    increment = (int) Math.pow(2, increment);
+    /**
+     * @param list  the elements to be put into order
+     * @param first the index of the first element in the part of list to sort
+     * @param last  the index of the last element in the part of list to sort
+     * @param gaps  the sequence of increments to use
+     */
+    public static void ShellSort(
+            int[] list, int first, int last, GapSequence gaps) {
+	int[] increments = gaps.gaps;
+	int   n          = last - first + 1;
+	int   pass       = increments.length - 1;
 
-	    for (int start = 0; start < increment; ++start) {
-		InsertionSort(list, n, start, increment);
-	    }
+	/* skip the increments that are not smaller than the list */
+	while ((pass > 0) && (increments[pass] >= n)) {
+	    --pass;
+	}
 
-	    --passes;
+	while (pass >= 0) {
+	    InsertionSort(list, first, last, increments[pass]);
+	    --pass;
 	}
     }
 
     /**
+     * Sorts each of the sublists of elements that are increment apart. The
+     * sublists are sorted together in one pass from left to right, rather than
+     * one after another, so the list is read sequentially.
+     *
      * @param list      the elements to be put into order
-     * @param n         the number of elements in the list
-     * @param start
-     * @param increment 
+     * @param first     the index of the first element in the part to sort
+     * @param last      the index of the last element in the part to sort
+     * @param increment the distance between the elements of a sublist
      */
     private static void InsertionSort(
-            int[] list, int n, int start, int increment) {
+            int[] list, int first, int last, int increment) {
 	int newElement = 0;
 	int location = 0;
 
-	//for (int i = 1; i < n; ++i) {
-	for (int i = start; i < n; i += increment) {
+	for (int i = first + increment; i <= last; ++i) {
 	    newElement = list[i];
-	    location = i - 1;
+	    location = i - increment;
 
-	    while ((location >= 0) && (list[location] > newElement)) {
+	    while ((location >= first) && (list[location] > newElement)) {
 		/* move any larger elements out of the way */
-		list[location + 1] = list[location];
-		location = location - 1;
+		list[location + increment] = list[location];
+		location = location - increment;
+	    }
+
+	    list[location + increment] = newElement;
+	}
+    }
+
+    /**
+     * @return the increments of Ciura, extended up to Integer.MAX_VALUE
+     */
+    private static int[] ciura() {
+	int[] known = {1, 4, 10, 23, 57, 132, 301, 701, 1750};
+	int   count = known.length;
+	long  gap   = known[count - 1];
+
+	while ((long) (gap * 2.25) <= Integer.MAX_VALUE) {
+	    gap = (long) (gap * 2.25);
+	    ++count;
+	}
+
+	int[] gaps = java.util.Arrays.copyOf(known, count);
+	for (int k = known.length; k < count; ++k) {
+	    gaps[k] = (int) (gaps[k - 1] * 2.25);
+	}
+
+	return gaps;
+    }
+
+    /**
+     * @return the increments of Tokuda up to Integer.MAX_VALUE
+     */
+    private static int[] tokuda() {
+	int[] gaps  = new int[32];
+	int   count = 0;
+
+	for (int k = 1; ; ++k) {
+	    double gap = Math.ceil(
+		(Math.pow(9, k) - Math.pow(4, k)) / (5 * Math.pow(4, k - 1)));
+
+	    if (gap > Integer.MAX_VALUE) {
+		break;
 	    }
+	    gaps[count++] = (int) gap;
+	}
 
-	    list[location + 1] = newElement;
+	return java.util.Arrays.copyOf(gaps, count);
+    }
+
+    /**
+     * @return the increments of Sedgewick up to Integer.MAX_VALUE
+     */
+    private static int[] sedgewick() {
+	int[] gaps  = new int[32];
+	int   count = 0;
+
+	gaps[count++] = 1;
+	for (int k = 1; ; ++k) {
+	    long gap = (1L << (2 * k)) + 3 * (1L << (k - 1)) + 1;
+
+	    if (gap > Integer.MAX_VALUE) {
+		break;
+	    }
+	    gaps[count++] = (int) gap;
 	}
+
+	return java.util.Arrays.copyOf(gaps, count);
     }
 
     public static double log2(double d) {
 	return Math.log(d) / Math.log(2.0);
     }
 
+    /**
+     * @param list the elements to be put into order
+     * @param n    the number of elements in the list
+     */
+    public void sort(int[] list, int n) {
+	ShellSort(list, 0, n - 1, gaps);
+    }
+
     public static void main(String[] args) {
 	int[] list = {15, 4, 10, 8, 6, 9, 16, 1, 7, 3, 11, 14, 2, 5, 12, 13};
 
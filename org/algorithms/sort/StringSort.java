@@ -0,0 +1,493 @@
+/**
+ * Copyright (C) 2011 by Andrey Pudov
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+/**
+ * A comparison sort of strings compares every pair of strings from their
+ * first character on, so strings that share a long prefix, such as the URLs
+ * of one site or the paths in one directory, have the prefix scanned again
+ * on every comparison. The string sorts here look at one character position
+ * d at a time instead. Once a group of strings is known to agree on their
+ * first d characters, none of those characters is looked at again:
+ *
+ *   the three-way radix Quicksort partitions the strings into those whose
+ *   character d is smaller than, equal to and larger than that of a pivot,
+ *   and only the equal part moves on to character d + 1;
+ *   the MSD radix sort distributes the strings into one bucket for every
+ *   value of character d, the strings that end before d first, and sorts
+ *   every bucket on character d + 1.
+ *
+ * The MSD sort recurses once for every digit on which a bucket splits, so
+ * keys with long distinguishing suffixes would make the recursion as deep as
+ * the keys are long. Past MAX_DEPTH levels a bucket is handed to the
+ * three-way radix Quicksort, which loops on the equal part instead, so its
+ * depth does not grow with the length of the keys.
+ *
+ * Small groups are finished by insertion sort comparing from character d on.
+ * The strings that end are smaller than all of their extensions, so both
+ * sorts put String[] into the order of compareTo. The byte[][] keys are put
+ * into lexicographic order of their bytes read as unsigned numbers, and the
+ * MSD sort of String[] takes the 16-bit characters one byte at a time.
+ *
+ * @version 0.00 18 Oct 2026
+ * @author  Andrey Pudov
+ */
+public class StringSort {
+
+    /** the number of values of a digit of the MSD sort */
+    private static final int RADIX = 256;
+
+    /** the groups up to this size are sorted by insertion */
+    private static final int INSERTION_THRESHOLD = 16;
+
+    /** the levels of the MSD sort before buckets go to the three-way sort */
+    private static final int MAX_DEPTH = 64;
+
+    /**
+     * Sorts by three-way radix Quicksort.
+     *
+     * @param list  the strings to be put into order
+     * @param first the index of the first string in the part of list to sort
+     * @param last  the index of the last string in the part of list to sort
+     */
+    public static void sort(String[] list, int first, int last) {
+	sort(list, first, last, 0);
+    }
+
+    /**
+     * Sorts by three-way radix Quicksort.
+     *
+     * @param list  the keys to be put into order
+     * @param first the index of the first key in the part of list to sort
+     * @param last  the index of the last key in the part of list to sort
+     */
+    public static void sort(byte[][] list, int first, int last) {
+	sort(list, first, last, 0);
+    }
+
+    /**
+     * Sorts by MSD radix sort.
+     *
+     * @param list  the strings to be put into order
+     * @param first the index of the first string in the part of list to sort
+     * @param last  the index of the last string in the part of list to sort
+     */
+    public static void msdSort(String[] list, int first, int last) {
+	if (last - first + 1 <= INSERTION_THRESHOLD) {
+	    insertionSort(list, first, last, 0);
+	} else {
+	    msdSort(list, first, last, 0, 0, new String[last - first + 1]);
+	}
+    }
+
+    /**
+     * Sorts by MSD radix sort.
+     *
+     * @param list  the keys to be put into order
+     * @param first the index of the first key in the part of list to sort
+     * @param last  the index of the last key in the part of list to sort
+     */
+    public static void msdSort(byte[][] list, int first, int last) {
+	if (last - first + 1 <= INSERTION_THRESHOLD) {
+	    insertionSort(list, first, last, 0);
+	} else {
+	    msdSort(list, first, last, 0, 0, new byte[last - first + 1][]);
+	}
+    }
+
+    /**
+     * Sorts list[first..last], whose strings agree on their first d
+     * characters. The parts with smaller and larger characters are sorted
+     * recursively; the loop goes on with the equal part and character d + 1,
+     * so long shared prefixes do not deepen the recursion.
+     */
+    private static void sort(String[] list, int first, int last, int d) {
+	while (last - first + 1 > INSERTION_THRESHOLD) {
+	    MedianToFirst(list, first, last, d);
+
+	    int pivotValue = charAt(list[first], d);
+	    int lower      = first;             // list[first..lower) < pivot
+	    int upper      = last;              // list(upper..last] > pivot
+	    int i          = first + 1;
+
+	    while (i <= upper) {
+		int c = charAt(list[i], d);
+
+		if (c < pivotValue) {
+		    swap(list, lower++, i++);
+		} else if (c > pivotValue) {
+		    swap(list, i, upper--);
+		} else {
+		    ++i;
+		}
+	    }
+
+	    sort(list, first, lower - 1, d);
+	    sort(list, upper + 1, last, d);
+
+	    /* the equal strings have all ended, they are equal */
+	    if (pivotValue < 0) {
+		return;
+	    }
+
+	    first = lower;
+	    last  = upper;
+	    ++d;
+	}
+
+	insertionSort(list, first, last, d);
+    }
+
+    /**
+     * Sorts list[first..last], whose keys agree on their first d bytes, in
+     * the same way as the String version.
+     */
+    private static void sort(byte[][] list, int first, int last, int d) {
+	while (last - first + 1 > INSERTION_THRESHOLD) {
+	    MedianToFirst(list, first, last, d);
+
+	    int pivotValue = byteAt(list[first], d);
+	    int lower      = first;             // list[first..lower) < pivot
+	    int upper      = last;              // list(upper..last] > pivot
+	    int i          = first + 1;
+
+	    while (i <= upper) {
+		int c = byteAt(list[i], d);
+
+		if (c < pivotValue) {
+		    swap(list, lower++, i++);
+		} else if (c > pivotValue) {
+		    swap(list, i, upper--);
+		} else {
+		    ++i;
+		}
+	    }
+
+	    sort(list, first, lower - 1, d);
+	    sort(list, upper + 1, last, d);
+
+	    /* the equal keys have all ended, they are equal */
+	    if (pivotValue < 0) {
+		return;
+	    }
+
+	    first = lower;
+	    last  = upper;
+	    ++d;
+	}
+
+	insertionSort(list, first, last, d);
+    }
+
+    /**
+     * Sorts list[first..last], whose strings agree on their first d digits,
+     * a digit being one byte of a character, the high byte first, at the
+     * given depth of recursion.
+     */
+    private static void msdSort(String[] list, int first, int last, int d,
+				int depth, String[] buffer) {
+	while (last - first + 1 > INSERTION_THRESHOLD) {
+	    int n = last - first + 1;
+
+	    /* count[c + 2] counts digit c, digit -1 marks the end */
+	    int[] count = new int[RADIX + 2];
+	    for (int i = first; i <= last; ++i) {
+		++count[digitAt(list[i], d) + 2];
+	    }
+
+	    /* all of the strings have the same digit, nothing would move */
+	    int c = digitAt(list[first], d);
+	    if (count[c + 2] == n) {
+		if (c < 0) {
+		    return;
+		}
+		++d;
+		continue;
+	    }
+
+	    /* turn the counts into the positions where the buckets start */
+	    for (int r = 0; r <= RADIX; ++r) {
+		count[r + 1] += count[r];
+	    }
+
+	    for (int i = first; i <= last; ++i) {
+		buffer[count[digitAt(list[i], d) + 1]++] = list[i];
+	    }
+	    System.arraycopy(buffer, 0, list, first, n);
+
+	    /*
+	     * count[c] is now the start of the bucket of digit c, whose strings
+	     * agree on their first (d + 1) / 2 characters
+	     */
+	    for (int r = 0; r < RADIX; ++r) {
+		int start = first + count[r];
+		int end   = first + count[r + 1] - 1;
+
+		if (end - start < 1) {
+		    continue;
+		}
+		if (depth < MAX_DEPTH) {
+		    msdSort(list, start, end, d + 1, depth + 1, buffer);
+		} else {
+		    sort(list, start, end, (d + 1) >> 1);
+		}
+	    }
+	    return;
+	}
+
+	insertionSort(list, first, last, d >> 1);
+    }
+
+    /**
+     * Sorts list[first..last], whose keys agree on their first d bytes, at
+     * the given depth of recursion.
+     */
+    private static void msdSort(byte[][] list, int first, int last, int d,
+				int depth, byte[][] buffer) {
+	while (last - first + 1 > INSERTION_THRESHOLD) {
+	    int n = last - first + 1;
+
+	    /* count[c + 2] counts byte c, byte -1 marks the end */
+	    int[] count = new int[RADIX + 2];
+	    for (int i = first; i <= last; ++i) {
+		++count[byteAt(list[i], d) + 2];
+	    }
+
+	    /* all of the keys have the same byte, nothing would move */
+	    int c = byteAt(list[first], d);
+	    if (count[c + 2] == n) {
+		if (c < 0) {
+		    return;
+		}
+		++d;
+		continue;
+	    }
+
+	    /* turn the counts into the positions where the buckets start */
+	    for (int r = 0; r <= RADIX; ++r) {
+		count[r + 1] += count[r];
+	    }
+
+	    for (int i = first; i <= last; ++i) {
+		buffer[count[byteAt(list[i], d) + 1]++] = list[i];
+	    }
+	    System.arraycopy(buffer, 0, list, first, n);
+
+	    /* count[c] is now the start of the bucket of byte c */
+	    for (int r = 0; r < RADIX; ++r) {
+		int start = first + count[r];
+		int end   = first + count[r + 1] - 1;
+
+		if (end - start < 1) {
+		    continue;
+		}
+		if (depth < MAX_DEPTH) {
+		    msdSort(list, start, end, d + 1, depth + 1, buffer);
+		} else {
+		    sort(list, start, end, d + 1);
+		}
+	    }
+	    return;
+	}
+
+	insertionSort(list, first, last, d);
+    }
+
+    /**
+     * Moves the string whose character d is the median of those of the first,
+     * middle and last strings to the first location, to be the pivot.
+     */
+    private static void MedianToFirst(
+            String[] list, int first, int last, int d) {
+	int middle = (first + last) >>> 1;
+	int a = charAt(list[first], d);
+	int b = charAt(list[middle], d);
+	int c = charAt(list[last], d);
+
+	if ((a < b) ? (b < c) : (c < b)) {
+	    swap(list, first, middle);
+	} else if ((a < c) ? (c < b) : (b < c)) {
+	    swap(list, first, last);
+	}
+    }
+
+    /**
+     * Moves the key whose byte d is the median of those of the first, middle
+     * and last keys to the first location, to be the pivot.
+     */
+    private static void MedianToFirst(
+            byte[][] list, int first, int last, int d) {
+	int middle = (first + last) >>> 1;
+	int a = byteAt(list[first], d);
+	int b = byteAt(list[middle], d);
+	int c = byteAt(list[last], d);
+
+	if ((a < b) ? (b < c) : (c < b)) {
+	    swap(list, first, middle);
+	} else if ((a < c) ? (c < b) : (b < c)) {
+	    swap(list, first, last);
+	}
+    }
+
+    /**
+     * Sorts list[first..last] the same way InsertionSort does, comparing the
+     * strings from character d on.
+     */
+    private static void insertionSort(
+            String[] list, int first, int last, int d) {
+	for (int i = first + 1; i <= last; ++i) {
+	    String newElement = list[i];
+	    int    location   = i - 1;
+
+	    while ((location >= first) && less(newElement, list[location], d)) {
+		/* move any larger elements out of the way */
+		list[location + 1] = list[location];
+		--location;
+	    }
+
+	    list[location + 1] = newElement;
+	}
+    }
+
+    /**
+     * Sorts list[first..last] the same way InsertionSort does, comparing the
+     * keys from byte d on.
+     */
+    private static void insertionSort(
+            byte[][] list, int first, int last, int d) {
+	for (int i = first + 1; i <= last; ++i) {
+	    byte[] newElement = list[i];
+	    int    location   = i - 1;
+
+	    while ((location >= first) && less(newElement, list[location], d)) {
+		/* move any larger elements out of the way */
+		list[location + 1] = list[location];
+		--location;
+	    }
+
+	    list[location + 1] = newElement;
+	}
+    }
+
+    /**
+     * @return whether a comes before b, looking from character d on
+     */
+    private static boolean less(String a, String b, int d) {
+	int length = Math.min(a.length(), b.length());
+
+	for (int i = d; i < length; ++i) {
+	    char x = a.charAt(i);
+	    char y = b.charAt(i);
+
+	    if (x != y) {
+		return x < y;
+	    }
+	}
+
+	return a.length() < b.length();
+    }
+
+    /**
+     * @return whether a comes before b, looking from byte d on
+     */
+    private static boolean less(byte[] a, byte[] b, int d) {
+	int length = Math.min(a.length, b.length);
+
+	for (int i = d; i < length; ++i) {
+	    int x = a[i] & 0xFF;
+	    int y = b[i] & 0xFF;
+
+	    if (x != y) {
+		return x < y;
+	    }
+	}
+
+	return a.length < b.length;
+    }
+
+    /**
+     * @return character d of the string, or -1 if the string is shorter
+     */
+    private static int charAt(String s, int d) {
+	return (d < s.length()) ? s.charAt(d) : -1;
+    }
+
+    /**
+     * @return byte d of the string (the high byte of character d / 2 if d is
+     *         even, the low one otherwise), or -1 if the string is shorter
+     */
+    private static int digitAt(String s, int d) {
+	int index = d >> 1;
+
+	if (index >= s.length()) {
+	    return -1;
+	}
+
+	return (s.charAt(index) >>> (((d & 1) == 0) ? 8 : 0)) & 0xFF;
+    }
+
+    /**
+     * @return byte d of the key as an unsigned number, or -1 if the key is
+     *         shorter
+     */
+    private static int byteAt(byte[] s, int d) {
+	return (d < s.length) ? s[d] & 0xFF : -1;
+    }
+
+    private static <T> void swap(T[] a, int i, int j) {
+	T t = a[i];
+	a[i] = a[j];
+	a[j] = t;
+    }
+
+    public static void main(String[] args) {
+	/** the maximum size of an array */
+	int MAX_LEN = 1000000;
+
+	java.util.Random random = new java.util.Random();
+	String[] list = new String[MAX_LEN];
+	for (int i = 0; i < list.length; i++) {
+	    list[i] = "https://www.example.com/catalog/items/"
+		+ random.nextInt(1000) + "/" + random.nextInt();
+	}
+
+	String[][] copies = {list.clone(), list.clone(), list.clone()};
+	String[]   names  = {"sort", "msdSort", "Arrays.sort"};
+
+	for (int k = 0; k < copies.length; k++) {
+	    String[] copy = copies[k];
+
+	    long startTime = System.currentTimeMillis();
+	    if (k == 0) {
+		sort(copy, 0, copy.length - 1);
+	    } else if (k == 1) {
+		msdSort(copy, 0, copy.length - 1);
+	    } else {
+		java.util.Arrays.sort(copy);
+	    }
+	    long endTime = System.currentTimeMillis();
+	    float seconds = (endTime - startTime) / 1000F;
+
+	    System.out.println(names[k] + ": " + Float.toString(seconds)
+			       + " seconds.");
+	}
+    }
+}